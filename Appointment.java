@@ -7,8 +7,8 @@ public class Appointment implements Comparable<Appointment> {
 
     protected Date date;
     protected Timeslot timeslot;
-    protected Person patient;
-    protected Person provider;
+    protected Profile patient;
+    protected Provider provider;
 
     /**
      * Constructor for the Appointment class.
@@ -45,7 +45,7 @@ public class Appointment implements Comparable<Appointment> {
      * Getter for patient profile.
      * @return The patient's profile.
      */
-    public Person getPatient() {
+    public Profile getPatient() {
         return patient;
     }
 
@@ -54,7 +54,7 @@ public class Appointment implements Comparable<Appointment> {
      * If provider is null, return a default message instead of causing a NullPointerException.
      * @return The appointment provider or a default value if null.
      */
-    public Person getProvider() {
+    public Provider getProvider() {
         if (provider == null) {
 
             return null;
@@ -88,6 +88,18 @@ public class Appointment implements Comparable<Appointment> {
         return false;
     }
 
+    /**
+     * Returns a hash code consistent with equals.
+     * @return a hash of the date, timeslot, patient, and provider.
+     */
+    @Override
+    public int hashCode() {
+        int result = date != null ? date.hashCode() : 0;
+        result = 31 * result + (timeslot != null ? timeslot.hashCode() : 0);
+        result = 31 * result + (patient != null ? patient.hashCode() : 0);
+        return 31 * result + (provider != null ? provider.hashCode() : 0);
+    }
+
 
     /**
      * Compares this appointment with another appointment for order.
@@ -138,5 +150,10 @@ public class Appointment implements Comparable<Appointment> {
 
         // Test case 4: toString
         System.out.println("Test case 4: appt1 toString: " + appt1);
+
+        // Test case 5: Equal appointments have equal hash codes
+        Appointment appt5 = new Appointment(new Date(2024, 9, 30), Timeslot.SLOT1,
+                new Profile("John", "Doe", new Date(1989, 12, 13)), Provider.PATEL);
+        System.out.println("Test case 5: appt1 hashCode equals appt5 hashCode: " + (appt1.hashCode() == appt5.hashCode()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,474 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Appointment store that keeps every appointment as one row of parallel primitive columns:
+ * the epoch day, the timeslot ordinal, the provider ordinal and the interned patient id.
+ * A row is 10 bytes of contiguous memory instead of an Appointment with its Date, Profile,
+ * name Strings and date of birth, and there are no sorted views to keep up, so scans and
+ * filters read straight through the arrays. With its key index a row takes about a sixth
+ * of the heap of an appointment in a List; the columns themselves take a thirtieth.
+ * Rows are found by their packed AppointmentKey like in List, and a removed row is filled
+ * with the last one.
+ *
+ * The three listing orders are computed as row permutations. Each is a single sort of
+ * a long array whose high half is the leading sort field and whose low half is the row's
+ * position in an order that already breaks the remaining ties, so no comparator runs over
+ * rows. Patients are ranked by name and date of birth once, and again only after new
+ * patients are registered.
+ */
+public class AppointmentColumns {
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+    private static final Provider[] PROVIDERS = Provider.values();
+    private static final int[] PROVIDER_RANKS = rank(Comparator.comparing(Provider::getLastName));
+    private static final int[] COUNTY_RANKS = rank(Comparator.comparing(provider -> provider.getLocation().getCounty()));
+    private static final long LOW_MASK = 0xFFFFFFFFL;
+
+    private int[] days; // epoch day of each row
+    private byte[] slots; // timeslot ordinal of each row
+    private byte[] providers; // provider ordinal of each row
+    private int[] patientIds; // interned patient id of each row
+    private int size;
+    private final LongIntHashMap index; // appointment key -> row
+    private final PatientRegistry patients;
+    private int[] patientRanks; // patient id -> position in patient order, for the ids registered when it was built
+    private int rankedPatients;
+
+    /**
+     * Constructor for the AppointmentColumns class with its own patient registry.
+     */
+    public AppointmentColumns() {
+        this(new PatientRegistry());
+    }
+
+    /**
+     * Constructor for the AppointmentColumns class.
+     * @param patients The registry that assigns the patient ids stored in the rows.
+     */
+    public AppointmentColumns(PatientRegistry patients) {
+        days = new int[16];
+        slots = new byte[16];
+        providers = new byte[16];
+        patientIds = new int[16];
+        size = 0;
+        index = new LongIntHashMap();
+        this.patients = patients;
+        patientRanks = new int[1];
+        rankedPatients = 0;
+    }
+
+    /**
+     * Gets the number of appointments in the store.
+     * @return the number of rows.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Adds an appointment.
+     * An appointment that is already in the store, or has an invalid date, is not added.
+     * @param appointment The appointment to add.
+     * @return true if a row was added, false otherwise.
+     */
+    public boolean add(Appointment appointment) {
+        if (!appointment.getDate().isValid()) {
+            return false;
+        }
+        return add(appointment.getDate().toEpochDay(), appointment.getTimeslot(), appointment.getProvider(),
+                patients.intern(appointment.getPatient()));
+    }
+
+    /**
+     * Adds an appointment given as column values.
+     * @param epochDay The epoch day of the appointment.
+     * @param timeslot The timeslot.
+     * @param provider The provider.
+     * @param patientId The patient's id in this store's registry.
+     * @return true if a row was added, false if the appointment is already in the store.
+     */
+    public boolean add(int epochDay, Timeslot timeslot, Provider provider, int patientId) {
+        long key = AppointmentKey.of(epochDay, timeslot, provider, patientId);
+        if (index.containsKey(key)) {
+            return false;
+        }
+        if (size == days.length) {
+            grow();
+        }
+        days[size] = epochDay;
+        slots[size] = (byte) timeslot.ordinal();
+        providers[size] = (byte) provider.ordinal();
+        patientIds[size] = patientId;
+        index.put(key, size++);
+        return true;
+    }
+
+    /**
+     * Checks if the store contains an appointment.
+     * @param appointment The appointment to look for.
+     * @return true if the appointment is in the store, false otherwise.
+     */
+    public boolean contains(Appointment appointment) {
+        long key = keyOf(appointment);
+        return key != AppointmentKey.NONE && index.containsKey(key);
+    }
+
+    /**
+     * Removes an appointment; the last row is moved into the freed row.
+     * @param appointment The appointment to remove.
+     * @return true if the appointment was in the store, false otherwise.
+     */
+    public boolean remove(Appointment appointment) {
+        long key = keyOf(appointment);
+        int row = key == AppointmentKey.NONE ? -1 : index.get(key, -1);
+        if (row == -1) {
+            return false;
+        }
+        index.remove(key);
+        int last = --size;
+        if (row != last) {
+            days[row] = days[last];
+            slots[row] = slots[last];
+            providers[row] = providers[last];
+            patientIds[row] = patientIds[last];
+            index.put(keyOf(row), row);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every appointment. Patient ids stay registered.
+     */
+    public void clear() {
+        size = 0;
+        index.clear();
+    }
+
+    /**
+     * Builds the appointment stored in a row.
+     * @param row The row, from 0 to getSize() - 1.
+     * @return a new Appointment with the row's values.
+     */
+    public Appointment getAppointment(int row) {
+        return new Appointment(Date.ofEpochDay(days[row]), TIMESLOTS[slots[row]],
+                patients.getProfile(patientIds[row]), PROVIDERS[providers[row]]);
+    }
+
+    public int getEpochDay(int row) {
+        return days[row];
+    }
+
+    public Timeslot getTimeslot(int row) {
+        return TIMESLOTS[slots[row]];
+    }
+
+    public Provider getProvider(int row) {
+        return PROVIDERS[providers[row]];
+    }
+
+    public int getPatientId(int row) {
+        return patientIds[row];
+    }
+
+    /**
+     * Counts a provider's appointments in a range of days with a scan of two columns.
+     * @param provider The provider.
+     * @param fromDay The first epoch day, inclusive.
+     * @param toDay The last epoch day, inclusive.
+     * @return the number of appointments.
+     */
+    public int count(Provider provider, int fromDay, int toDay) {
+        byte ordinal = (byte) provider.ordinal();
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (providers[row] == ordinal && days[row] >= fromDay && days[row] <= toDay) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Orders the rows by date, time, provider name and patient, like PA.
+     * @return the rows in order.
+     */
+    public int[] sortByAppointment() {
+        int[] byPatient = sortRows(patientRankKeys(), null);
+        return sortRows(appointmentKeys(byPatient), byPatient);
+    }
+
+    /**
+     * Orders the rows by patient, then date, time and provider name, like PP.
+     * @return the rows in order.
+     */
+    public int[] sortByPatient() {
+        int[] byAppointment = sortByAppointment();
+        int[] ranks = patientRanks();
+        long[] keys = new long[size];
+        for (int position = 0; position < size; position++) {
+            keys[position] = (long) ranks[patientIds[byAppointment[position]]] << 32 | position;
+        }
+        return sortRows(keys, byAppointment);
+    }
+
+    /**
+     * Orders the rows by county, then date, time, provider name and patient, like PL.
+     * @return the rows in order.
+     */
+    public int[] sortByLocation() {
+        int[] byAppointment = sortByAppointment();
+        long[] keys = new long[size];
+        for (int position = 0; position < size; position++) {
+            keys[position] = (long) COUNTY_RANKS[providers[byAppointment[position]]] << 32 | position;
+        }
+        return sortRows(keys, byAppointment);
+    }
+
+    /**
+     * Builds one key per row of the patient rank and the row.
+     */
+    private long[] patientRankKeys() {
+        int[] ranks = patientRanks();
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = (long) ranks[patientIds[row]] << 32 | row;
+        }
+        return keys;
+    }
+
+    /**
+     * Builds one key per position in an order of the date, time and provider rank of the row
+     * at that position and the position itself, which keeps the order for ties.
+     * Days are stored relative to the earliest one so the key stays positive.
+     */
+    private long[] appointmentKeys(int[] order) {
+        int firstDay = Integer.MAX_VALUE;
+        for (int row = 0; row < size; row++) {
+            firstDay = Math.min(firstDay, days[row]);
+        }
+        long[] keys = new long[size];
+        for (int position = 0; position < size; position++) {
+            int row = order[position];
+            long when = (long) (days[row] - firstDay) << 6 | slots[row] << 3 | PROVIDER_RANKS[providers[row]];
+            keys[position] = when << 32 | position;
+        }
+        return keys;
+    }
+
+    /**
+     * Sorts keys whose low half is a position and maps the positions to rows.
+     * @param keys The keys, sorted in place.
+     * @param order The rows at each position, or null if the positions are rows.
+     * @return the rows in the order of the keys.
+     */
+    private static int[] sortRows(long[] keys, int[] order) {
+        Arrays.sort(keys);
+        int[] rows = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int position = (int) (keys[i] & LOW_MASK);
+            rows[i] = order == null ? position : order[position];
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the position of every registered patient in name and date of birth order,
+     * ranking again if patients have been registered since the last time.
+     */
+    private int[] patientRanks() {
+        int registered = patients.getSize();
+        if (registered != rankedPatients) {
+            Profile[] profiles = new Profile[registered];
+            for (int id = 1; id <= registered; id++) {
+                profiles[id - 1] = patients.getProfile(id);
+            }
+            Arrays.sort(profiles);
+            int[] ranks = new int[registered + 1];
+            for (int i = 0; i < registered; i++) {
+                ranks[patients.find(profiles[i])] = i;
+            }
+            patientRanks = ranks;
+            rankedPatients = registered;
+        }
+        return patientRanks;
+    }
+
+    /**
+     * Builds the packed key of an appointment without registering its patient.
+     */
+    private long keyOf(Appointment appointment) {
+        if (!appointment.getDate().isValid()) {
+            return AppointmentKey.NONE;
+        }
+        int patientId = patients.find(appointment.getPatient());
+        if (patientId == 0) {
+            return AppointmentKey.NONE;
+        }
+        return AppointmentKey.of(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                appointment.getProvider(), patientId);
+    }
+
+    private long keyOf(int row) {
+        return AppointmentKey.of(days[row], TIMESLOTS[slots[row]], PROVIDERS[providers[row]], patientIds[row]);
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = days.length * 2;
+        days = Arrays.copyOf(days, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        providers = Arrays.copyOf(providers, capacity);
+        patientIds = Arrays.copyOf(patientIds, capacity);
+    }
+
+    /**
+     * Ranks the providers in an order, with equal providers sharing a rank.
+     */
+    private static int[] rank(Comparator<Provider> order) {
+        Provider[] sorted = PROVIDERS.clone();
+        Arrays.sort(sorted, order);
+        int[] ranks = new int[PROVIDERS.length];
+        int rank = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && order.compare(sorted[i - 1], sorted[i]) != 0) {
+                rank++;
+            }
+            ranks[sorted[i].ordinal()] = rank;
+        }
+        return ranks;
+    }
+
+    // Testbed main
+
+    /**
+     * Main method for testing the AppointmentColumns class.
+     * Checks the three orders against List's listings, then compares the heap used per
+     * appointment and the time to order the rows with a List of the same appointments.
+     * Usage: AppointmentColumns [appointments]
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(1);
+        Profile[] people = new Profile[500];
+        for (int i = 0; i < people.length; i++) {
+            people[i] = new Profile("First" + random.nextInt(50), "Last" + random.nextInt(50),
+                    Date.ofEpochDay(random.nextInt(20000)));
+        }
+        List list = new List(new PatientRegistry());
+        AppointmentColumns columns = new AppointmentColumns();
+        int today = Date.todayEpochDay();
+        for (int i = 0; i < 5000; i++) {
+            Appointment appointment = new Appointment(Date.ofEpochDay(today + random.nextInt(200)),
+                    TIMESLOTS[random.nextInt(TIMESLOTS.length)], people[random.nextInt(people.length)],
+                    PROVIDERS[random.nextInt(PROVIDERS.length)]);
+            list.add(appointment);
+            columns.add(appointment);
+        }
+        Appointment removed = list.getAppointment(17);
+        list.remove(removed);
+
+        // Test case 1
+        System.out.println("Test case 1: " + (columns.remove(removed) && !columns.contains(removed)
+                && columns.getSize() == list.getSize())); // Expected: true
+
+        // Test case 2
+        System.out.println("Test case 2: " + columns.listing(columns.sortByAppointment())
+                .equals(listing(list, "PA"))); // Expected: true
+
+        // Test case 3
+        System.out.println("Test case 3: " + columns.listing(columns.sortByPatient())
+                .equals(listing(list, "PP"))); // Expected: true
+
+        // Test case 4
+        System.out.println("Test case 4: " + columns.listing(columns.sortByLocation())
+                .equals(listing(list, "PL"))); // Expected: true
+
+        Profile[] patients = new Profile[Math.max(1, count / 8)];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Profile("First" + i, "Last" + (i % 1000), Date.ofEpochDay(i % 15000));
+        }
+        list = null;
+        long before = usedHeap();
+        List large = new List(new PatientRegistry());
+        for (int i = 0; i < count; i++) {
+            large.add(new Appointment(Date.ofEpochDay(today + i / 48), TIMESLOTS[i % 6],
+                    copyOf(patients[i % patients.length]), PROVIDERS[(i / 6) % 8]));
+        }
+        long listBytes = usedHeap() - before;
+        large = null;
+        before = usedHeap();
+        columns = new AppointmentColumns();
+        for (int i = 0; i < count; i++) {
+            columns.add(new Appointment(Date.ofEpochDay(today + i / 48), TIMESLOTS[i % 6],
+                    copyOf(patients[i % patients.length]), PROVIDERS[(i / 6) % 8]));
+        }
+        long columnBytes = usedHeap() - before;
+        System.out.printf("%,d appointments: List %.0f bytes each, columns %.0f bytes each%n",
+                count, (double) listBytes / count, (double) columnBytes / count);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            columns.sortByAppointment();
+            long appointmentNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            columns.sortByPatient();
+            long patientNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            columns.sortByLocation();
+            long locationNanos = System.nanoTime() - start;
+            System.out.printf("Orders in ms: by appointment %.1f, by patient %.1f, by location %.1f%n",
+                    appointmentNanos / 1e6, patientNanos / 1e6, locationNanos / 1e6);
+        }
+    }
+
+    /**
+     * Formats rows the way List lists them, for comparing orders.
+     */
+    private String listing(int[] rows) {
+        StringBuilder text = new StringBuilder();
+        for (int row : rows) {
+            text.append(getAppointment(row)).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Gets the rows of one of List's listings, without its title and end lines.
+     */
+    private static String listing(List list, String code) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.setOutput(bytes);
+        switch (code) {
+            case "PA":
+                list.printByAppointment();
+                break;
+            case "PP":
+                list.printByPatient();
+                break;
+            default:
+                list.printByLocation();
+        }
+        String text = bytes.toString();
+        return text.substring(text.indexOf("**\n") + 3, text.indexOf("** end of list **"));
+    }
+
+    /**
+     * Copies a profile with new name strings, as parsing a command would.
+     */
+    private static Profile copyOf(Profile profile) {
+        return new Profile(new String(profile.getFirstName()), new String(profile.getLastName()),
+                Date.ofEpochDay(profile.getDob().toEpochDay()));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
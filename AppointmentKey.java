@@ -0,0 +1,72 @@
+/**
+ * Packs an appointment into a single long key.
+ * Bits 0-2 hold the timeslot ordinal, bits 3-5 the provider ordinal,
+ * bits 6-31 the biased epoch day and bits 32-63 the interned patient id.
+ * Two appointments are equal exactly when their keys are equal.
+ */
+public final class AppointmentKey {
+    public static final long NONE = 0L;
+
+    private static final int SLOT_BITS = 3;
+    private static final int PROVIDER_BITS = 3;
+    private static final int DAY_BITS = 26;
+    private static final int PROVIDER_SHIFT = SLOT_BITS;
+    private static final int DAY_SHIFT = SLOT_BITS + PROVIDER_BITS;
+    private static final int PATIENT_SHIFT = DAY_SHIFT + DAY_BITS;
+    private static final int DAY_BIAS = 1 << (DAY_BITS - 1);
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+
+    private AppointmentKey() {
+    }
+
+    /**
+     * Builds the key for an appointment.
+     * @param epochDay The epoch day of the appointment date.
+     * @param timeslot The timeslot of the appointment.
+     * @param provider The provider of the appointment.
+     * @param patientId The interned id of the patient, at least 1.
+     * @return the packed key.
+     */
+    public static long of(int epochDay, Timeslot timeslot, Provider provider, int patientId) {
+        return ((long) patientId << PATIENT_SHIFT)
+                | (((long) epochDay + DAY_BIAS) & DAY_MASK) << DAY_SHIFT
+                | (long) provider.ordinal() << PROVIDER_SHIFT
+                | timeslot.ordinal();
+    }
+
+    /**
+     * Gets the epoch day stored in a key.
+     * @param key The packed key.
+     * @return the epoch day.
+     */
+    public static int epochDay(long key) {
+        return (int) ((key >>> DAY_SHIFT) & DAY_MASK) - DAY_BIAS;
+    }
+
+    /**
+     * Gets the timeslot ordinal stored in a key.
+     * @param key The packed key.
+     * @return the timeslot ordinal.
+     */
+    public static int timeslot(long key) {
+        return (int) (key & ((1 << SLOT_BITS) - 1));
+    }
+
+    /**
+     * Gets the provider ordinal stored in a key.
+     * @param key The packed key.
+     * @return the provider ordinal.
+     */
+    public static int provider(long key) {
+        return (int) ((key >>> PROVIDER_SHIFT) & ((1 << PROVIDER_BITS) - 1));
+    }
+
+    /**
+     * Gets the patient id stored in a key.
+     * @param key The packed key.
+     * @return the patient id.
+     */
+    public static int patient(long key) {
+        return (int) (key >>> PATIENT_SHIFT);
+    }
+}
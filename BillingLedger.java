@@ -0,0 +1,88 @@
+import java.util.Iterator;
+
+/**
+ * Running balances of the patients with appointments in a list.
+ * The list charges a patient when an appointment is added and refunds the charge when
+ * it is removed, so billing statements only read the balances in patient order
+ * instead of adding up every appointment again.
+ */
+public class BillingLedger implements Iterable<Profile> {
+    private IntLongHashMap balances; // patient id -> amount due
+    private IntLongHashMap appointmentCounts; // patient id -> appointments charged
+    private OrderedSet<Profile> patients; // patients with at least one appointment, in profile order
+
+    /**
+     * Constructor for the BillingLedger class.
+     * Initializes an empty ledger.
+     */
+    public BillingLedger() {
+        balances = new IntLongHashMap();
+        appointmentCounts = new IntLongHashMap();
+        patients = new OrderedSet<>(Profile::compareTo);
+    }
+
+    /**
+     * Adds the charge of an appointment to a patient's balance.
+     * @param patientId The interned id of the patient.
+     * @param profile The profile of the patient.
+     * @param amount The charge of the appointment.
+     */
+    public void charge(int patientId, Profile profile, int amount) {
+        if (appointmentCounts.add(patientId, 1) == 1) {
+            patients.add(profile);
+        }
+        balances.add(patientId, amount);
+    }
+
+    /**
+     * Takes the charge of a removed appointment off a patient's balance.
+     * A patient with no appointments left is dropped from the ledger.
+     * @param patientId The interned id of the patient.
+     * @param profile The profile of the patient.
+     * @param amount The charge of the appointment.
+     */
+    public void refund(int patientId, Profile profile, int amount) {
+        if (appointmentCounts.add(patientId, -1) == 0) {
+            appointmentCounts.remove(patientId);
+            balances.remove(patientId);
+            patients.remove(profile);
+        } else {
+            balances.add(patientId, -amount);
+        }
+    }
+
+    /**
+     * Gets the amount a patient owes.
+     * @param patientId The interned id of the patient.
+     * @return the balance, 0 if the patient has no appointments.
+     */
+    public long getBalance(int patientId) {
+        return balances.get(patientId, 0);
+    }
+
+    /**
+     * Gets the number of patients with a balance.
+     * @return the number of patients.
+     */
+    public int getPatientCount() {
+        return patients.getSize();
+    }
+
+    /**
+     * Removes every balance.
+     */
+    public void clear() {
+        balances.clear();
+        appointmentCounts.clear();
+        patients.clear();
+    }
+
+    /**
+     * Iterates over the patients with a balance, ordered by last name, first name and dob.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<Profile> iterator() {
+        return patients.iterator();
+    }
+}
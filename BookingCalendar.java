@@ -0,0 +1,140 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Knows which days can be booked: weekdays after today and no more than six months out.
+ * The answer for every day in that window is kept in a bitset that is rebuilt once
+ * when the clock moves to another day, so checking an appointment date is one lookup.
+ * Each rebuild publishes a new immutable window, so the calendar can be shared by threads.
+ */
+public class BookingCalendar {
+    private final Clock clock;
+    private volatile Window window;
+
+    /**
+     * The bookable days as of one day.
+     */
+    private static final class Window {
+        private final long[] bookable; // bit i is set when day firstDay + i can be booked
+        private final int today;
+        private final int firstDay;
+        private final int lastDay;
+        private final long dayStartMillis;
+        private final long nextDayMillis;
+
+        private Window(long[] bookable, int today, int firstDay, int lastDay, long dayStartMillis, long nextDayMillis) {
+            this.bookable = bookable;
+            this.today = today;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.dayStartMillis = dayStartMillis;
+            this.nextDayMillis = nextDayMillis;
+        }
+    }
+
+    /**
+     * Constructor for the BookingCalendar class using the system clock.
+     */
+    public BookingCalendar() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the BookingCalendar class.
+     * @param clock The clock that decides what today is.
+     */
+    public BookingCalendar(Clock clock) {
+        this.clock = clock;
+        this.window = new Window(new long[0], 0, 0, -1, Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    /**
+     * Checks if an appointment can be booked on a date.
+     * @param date The appointment date.
+     * @return true if the date is a valid weekday after today and within six months, false otherwise.
+     */
+    public boolean isBookable(Date date) {
+        Window window = refresh();
+        int offset = date.toEpochDay() - window.firstDay;
+        if (offset < 0 || offset > window.lastDay - window.firstDay || !date.isValid()) {
+            return false;
+        }
+        return (window.bookable[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Gets today's epoch day according to the clock.
+     * @return today's epoch day.
+     */
+    public int getToday() {
+        return refresh().today;
+    }
+
+    /**
+     * Rebuilds the bitset if the clock has moved to another day since it was last built.
+     * @return the window for the current day.
+     */
+    private Window refresh() {
+        long now = clock.millis();
+        Window current = window;
+        if (now >= current.dayStartMillis && now < current.nextDayMillis) {
+            return current;
+        }
+        ZoneId zone = clock.getZone();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+        int today = (int) date.toEpochDay();
+        long dayStartMillis = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long nextDayMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        int firstDay = today + 1;
+        int lastDay = Date.sixMonthsAfter(today);
+        long[] bookable = new long[((lastDay - firstDay) >>> 6) + 1];
+        for (int day = firstDay; day <= lastDay; day++) {
+            if (Math.floorMod(day + 3, 7) < 5) { // 1/1/1970 was a Thursday
+                int offset = day - firstDay;
+                bookable[offset >>> 6] |= 1L << offset;
+            }
+        }
+        current = new Window(bookable, today, firstDay, lastDay, dayStartMillis, nextDayMillis);
+        window = current;
+        return current;
+    }
+
+    // Testbed main
+
+    /**
+     * Main method for testing the BookingCalendar class.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        // Wednesday 10/14/2026 at noon
+        Clock clock = Clock.fixed(Instant.parse("2026-10-14T12:00:00Z"), ZoneOffset.UTC);
+        BookingCalendar calendar = new BookingCalendar(clock);
+
+        // Test case 1: today
+        System.out.println("Test case 1: " + calendar.isBookable(new Date(2026, 10, 14))); // Expected: false
+
+        // Test case 2: tomorrow, a Thursday
+        System.out.println("Test case 2: " + calendar.isBookable(new Date(2026, 10, 15))); // Expected: true
+
+        // Test case 3: Saturday
+        System.out.println("Test case 3: " + calendar.isBookable(new Date(2026, 10, 17))); // Expected: false
+
+        // Test case 4: last day of the window, a Wednesday
+        System.out.println("Test case 4: " + calendar.isBookable(new Date(2027, 4, 14))); // Expected: true
+
+        // Test case 5: one day past the window
+        System.out.println("Test case 5: " + calendar.isBookable(new Date(2027, 4, 15))); // Expected: false
+
+        // Test case 6: not a calendar date
+        System.out.println("Test case 6: " + calendar.isBookable(new Date(2026, 11, 31))); // Expected: false
+
+        // Test case 7: the window moves with the clock
+        BookingCalendar nextWeek = new BookingCalendar(Clock.offset(clock, Duration.ofDays(7)));
+        System.out.println("Test case 7: " + nextWeek.isBookable(new Date(2026, 10, 15))); // Expected: false
+    }
+}
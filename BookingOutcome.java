@@ -0,0 +1,11 @@
+/**
+ * The result of a schedule, cancel or reschedule request made to the scheduling core.
+ */
+public enum BookingOutcome {
+    BOOKED,
+    CANCELED,
+    RESCHEDULED,
+    ALREADY_BOOKED, // the patient already has this appointment, or the one it would move to
+    PROVIDER_BUSY, // the provider has another appointment at the timeslot
+    NOT_FOUND // there is no such appointment to cancel or move
+}
@@ -0,0 +1,12 @@
+/**
+ * Told about every command a scheduler processes, such as to measure how long each one took.
+ */
+public interface CommandListener {
+    /**
+     * Called after a command has been processed and its response flushed.
+     * It runs on the thread that processed the command, so it should be quick.
+     * @param type The type of the command.
+     * @param nanos How long the command took, in nanoseconds, including writing its response.
+     */
+    void commandProcessed(CommandType type, long nanos);
+}
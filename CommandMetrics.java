@@ -0,0 +1,172 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts and latencies of the commands a scheduler has processed, for each command type.
+ * Every command records its outcome in a counter and its latency in a log-bucketed
+ * histogram; both are single atomic increments into arrays sized up front, so recording
+ * never allocates or locks and every session of a scheduler can share one instance.
+ * The metrics are printed by the M command and can be read through JMX once registered.
+ */
+public class CommandMetrics implements CommandMetricsMXBean {
+    public static final String OBJECT_NAME = "Scheduler:type=CommandMetrics";
+
+    private static final CommandType[] TYPES = CommandType.values();
+    private static final CommandOutcome[] OUTCOMES = CommandOutcome.values();
+
+    private final LatencyHistogram[] latencies; // by command type
+    private final AtomicLongArray outcomes; // by command type, then outcome
+
+    /**
+     * Constructor for the CommandMetrics class.
+     * Initializes every count to zero.
+     */
+    public CommandMetrics() {
+        latencies = new LatencyHistogram[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        outcomes = new AtomicLongArray(TYPES.length * OUTCOMES.length);
+    }
+
+    /**
+     * Records one processed command.
+     * @param type The type of the command.
+     * @param outcome How the scheduler answered it.
+     * @param nanos How long it took, in nanoseconds.
+     */
+    public void record(CommandType type, CommandOutcome outcome, long nanos) {
+        latencies[type.ordinal()].record(nanos);
+        outcomes.incrementAndGet(type.ordinal() * OUTCOMES.length + outcome.ordinal());
+    }
+
+    /**
+     * Gets the number of commands of a type that were processed.
+     * @param type The command type.
+     * @return the count.
+     */
+    public long getCount(CommandType type) {
+        long count = 0;
+        for (CommandOutcome outcome : OUTCOMES) {
+            count += getCount(type, outcome);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of commands of a type that had an outcome.
+     * @param type The command type.
+     * @param outcome The outcome.
+     * @return the count.
+     */
+    public long getCount(CommandType type, CommandOutcome outcome) {
+        return outcomes.get(type.ordinal() * OUTCOMES.length + outcome.ordinal());
+    }
+
+    /**
+     * Gets a latency percentile for a command type.
+     * @param type The command type.
+     * @param fraction The fraction, such as 0.99 for the 99th percentile.
+     * @return the latency in nanoseconds, or 0 if no command of the type was processed.
+     */
+    public long getPercentile(CommandType type, double fraction) {
+        return latencies[type.ordinal()].getPercentile(fraction);
+    }
+
+    /**
+     * Prints a table of counts, errors and p50, p99 and p99.9 latencies for every command type
+     * that has been processed, followed by the count of each error outcome.
+     * @param out The stream to print to.
+     */
+    public void print(PrintStream out) {
+        out.println("** Command metrics **");
+        out.printf("%-4s %12s %12s %12s %12s %12s%n", "cmd", "count", "errors", "p50 us", "p99 us", "p99.9 us");
+        for (CommandType type : TYPES) {
+            long count = getCount(type);
+            if (count == 0) {
+                continue;
+            }
+            out.printf("%-4s %,12d %,12d %12.1f %12.1f %12.1f%n", type.getCode(), count,
+                    count - getCount(type, CommandOutcome.OK), micros(type, 0.5), micros(type, 0.99),
+                    micros(type, 0.999));
+            for (CommandOutcome outcome : OUTCOMES) {
+                if (outcome != CommandOutcome.OK && getCount(type, outcome) != 0) {
+                    out.printf("     %-16s %,8d%n", outcome, getCount(type, outcome));
+                }
+            }
+        }
+        out.println("** end of metrics **");
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under OBJECT_NAME.
+     * @throws JMException if the name is taken or the metrics cannot be registered.
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (CommandType type : TYPES) {
+            counts.put(type.getCode(), getCount(type));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (CommandType type : TYPES) {
+            for (CommandOutcome outcome : OUTCOMES) {
+                if (outcome != CommandOutcome.OK && getCount(type, outcome) != 0) {
+                    counts.put(type.getCode() + " " + outcome, getCount(type, outcome));
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return percentiles(0.5);
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return percentiles(0.99);
+    }
+
+    @Override
+    public Map<String, Double> getP999Micros() {
+        return percentiles(0.999);
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        for (int i = 0; i < outcomes.length(); i++) {
+            outcomes.set(i, 0);
+        }
+    }
+
+    private Map<String, Double> percentiles(double fraction) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (CommandType type : TYPES) {
+            percentiles.put(type.getCode(), micros(type, fraction));
+        }
+        return percentiles;
+    }
+
+    private double micros(CommandType type, double fraction) {
+        return getPercentile(type, fraction) / 1000.0;
+    }
+}
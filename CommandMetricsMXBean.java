@@ -0,0 +1,22 @@
+import java.util.Map;
+
+/**
+ * The command metrics as seen through JMX. Maps are keyed by command code, such as "S" or "PA",
+ * and outcome counts by code and outcome, such as "S NOT_AVAILABLE".
+ */
+public interface CommandMetricsMXBean {
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Double> getP50Micros();
+
+    Map<String, Double> getP99Micros();
+
+    Map<String, Double> getP999Micros();
+
+    /**
+     * Starts counting again from zero.
+     */
+    void reset();
+}
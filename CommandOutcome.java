@@ -0,0 +1,14 @@
+/**
+ * How the scheduler answered a command, as counted by the command metrics.
+ */
+public enum CommandOutcome {
+    OK,
+    INVALID_COMMAND, // unknown code or missing fields
+    INVALID_TIMESLOT,
+    INVALID_PROVIDER, // the provider doesn't exist
+    INVALID_DATE, // not a calendar date, not after today, a weekend or not within six months
+    INVALID_DOB, // not a calendar date or not before today
+    ALREADY_BOOKED, // the patient has an existing appointment at the time slot
+    NOT_AVAILABLE, // the provider is not available at the time slot
+    NOT_FOUND // the appointment does not exist
+}
@@ -0,0 +1,391 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Splits scheduler input into commands straight from bytes.
+ * Each call to next() moves to the following non-empty line and records where its
+ * comma-separated fields start and end; fields are only decoded when asked for, into
+ * ints, enum constants or dates, so reading a command does not allocate.
+ * A file can also be read through memory-mapped windows instead of a channel,
+ * in which case the commands are parsed directly from the mapped pages.
+ * A channel is read into a small buffer that grows while the input keeps it full and
+ * drops back to the small size once the input slows down, so a reader waiting on an
+ * idle connection holds little memory.
+ */
+public class CommandReader {
+    public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    private static final int MAX_FIELDS = 16;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 11;
+    private static final int BUFFER_SIZE = 1 << 16; // largest the buffer grows to for fast input
+    private static final Date NOT_A_DATE = new Date(0, 0, 0);
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final Provider[] PROVIDERS = Provider.values();
+    private static final byte[][] PROVIDER_NAMES = new byte[PROVIDERS.length][];
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+
+    static {
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            PROVIDER_NAMES[i] = PROVIDERS[i].name().getBytes(CHARSET);
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final FileChannel file;
+    private long fileSize;
+    private long windowStart; // file offset of the mapped window, when reading a file
+    private ByteBuffer data;
+    private int position; // start of the next unread line
+    private int limit; // end of the bytes read so far
+    private boolean endOfInput;
+    private boolean lastReadFilled; // the last read filled the buffer, so the input is arriving quickly
+
+    private CommandType type;
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    /**
+     * Constructor for the CommandReader class.
+     * @param channel The channel to read commands from.
+     */
+    public CommandReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.file = null;
+        this.data = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.position = 0;
+        this.limit = 0;
+        this.endOfInput = false;
+        this.type = CommandType.INVALID;
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Constructor for the CommandReader class that memory-maps a file.
+     * @param file The file to read commands from.
+     * @throws IOException if the size of the file cannot be read.
+     */
+    public CommandReader(FileChannel file) throws IOException {
+        this.channel = null;
+        this.file = file;
+        this.fileSize = file.size();
+        this.windowStart = 0;
+        this.data = ByteBuffer.allocate(0);
+        this.position = 0;
+        this.limit = 0;
+        this.endOfInput = fileSize == 0;
+        this.type = CommandType.INVALID;
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Moves to the next non-empty line of input.
+     * @return true if a command was read, false at the end of the input.
+     */
+    public boolean next() {
+        while (true) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0) {
+                if (position >= limit) {
+                    return false;
+                }
+                lineEnd = limit; // last line without a line break
+            }
+            int start = position;
+            position = Math.min(lineEnd + 1, limit);
+            if (split(start, lineEnd)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the type of the current command.
+     * @return the command type, INVALID if the code is not recognized.
+     */
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of fields on the current line, including the command code.
+     * @return the number of fields.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Gets a field of the current line as text.
+     * @param field The index of the field, 0 being the command code.
+     * @return the trimmed field text, or an empty string if the field is missing.
+     */
+    public String getText(int field) {
+        if (field >= fieldCount) {
+            return "";
+        }
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + start, length, CHARSET);
+        }
+        byte[] bytes = new byte[length];
+        data.get(start, bytes);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * Gets a field of the current line as a decimal integer.
+     * @param field The index of the field.
+     * @return the value, or NOT_A_NUMBER if the field is missing or not an integer.
+     */
+    public int getInt(int field) {
+        if (field >= fieldCount) {
+            return NOT_A_NUMBER;
+        }
+        return parseInt(fieldStart[field], fieldEnd[field]);
+    }
+
+    /**
+     * Gets a field of the current line as a timeslot number from 1 to 6.
+     * @param field The index of the field.
+     * @return the timeslot, or null if the field is not exactly one of the digits 1 to 6.
+     */
+    public Timeslot getTimeslot(int field) {
+        if (field >= fieldCount || fieldEnd[field] - fieldStart[field] != 1) {
+            return null;
+        }
+        int slot = data.get(fieldStart[field]) - '1';
+        return slot >= 0 && slot < TIMESLOTS.length ? TIMESLOTS[slot] : null;
+    }
+
+    /**
+     * Gets a field of the current line as a provider name, ignoring case.
+     * @param field The index of the field.
+     * @return the provider, or null if no provider has that name.
+     */
+    public Provider getProvider(int field) {
+        if (field >= fieldCount) {
+            return null;
+        }
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            byte[] name = PROVIDER_NAMES[i];
+            if (name.length != length) {
+                continue;
+            }
+            int j = 0;
+            while (j < length && toUpperCase(data.get(start + j)) == name[j]) {
+                j++;
+            }
+            if (j == length) {
+                return PROVIDERS[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a field of the current line as a date written MM/DD/YYYY.
+     * @param field The index of the field.
+     * @return the date; a field that is not in that form gives a date that is not valid.
+     */
+    public Date getDate(int field) {
+        if (field >= fieldCount) {
+            return NOT_A_DATE;
+        }
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        int firstSlash = indexOf('/', start, end);
+        int secondSlash = firstSlash < 0 ? -1 : indexOf('/', firstSlash + 1, end);
+        if (secondSlash < 0) {
+            return NOT_A_DATE;
+        }
+        int month = parseInt(start, firstSlash);
+        int day = parseInt(firstSlash + 1, secondSlash);
+        int year = parseInt(secondSlash + 1, end);
+        if (month == NOT_A_NUMBER || day == NOT_A_NUMBER || year == NOT_A_NUMBER) {
+            return NOT_A_DATE;
+        }
+        return Date.of(year, month, day);
+    }
+
+    /**
+     * Splits the line [start, end) into trimmed fields and decodes the command code.
+     * @return true if the line is not blank.
+     */
+    private boolean split(int start, int end) {
+        while (start < end && isBlank(data.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(data.get(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        fieldCount = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || data.get(i) == ',') {
+                if (fieldCount < MAX_FIELDS) {
+                    int s = fieldBegin;
+                    int e = i;
+                    while (s < e && isBlank(data.get(s))) {
+                        s++;
+                    }
+                    while (e > s && isBlank(data.get(e - 1))) {
+                        e--;
+                    }
+                    fieldStart[fieldCount] = s;
+                    fieldEnd[fieldCount] = e;
+                    fieldCount++;
+                }
+                fieldBegin = i + 1;
+            }
+        }
+        int codeLength = fieldEnd[0] - fieldStart[0];
+        byte first = data.get(fieldStart[0]);
+        byte second = codeLength > 1 ? data.get(fieldStart[0] + 1) : 0;
+        type = CommandType.of(first, second, codeLength);
+        return true;
+    }
+
+    /**
+     * Finds the next line break, reading more input as needed.
+     * @return the index of the line break, or -1 if the input ended first.
+     */
+    private int findLineEnd() {
+        int scan = position;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (data.get(i) == '\n') {
+                    return i;
+                }
+            }
+            if (endOfInput) {
+                return -1;
+            }
+            scan = limit - position;
+            fill();
+            scan += position;
+        }
+    }
+
+    /**
+     * Makes more input available after the unread bytes.
+     */
+    private void fill() {
+        if (file != null) {
+            map();
+        } else {
+            read();
+        }
+    }
+
+    /**
+     * Maps the next window of the file, starting at the first unread byte.
+     * The window is doubled when a single line does not fit in it.
+     */
+    private void map() {
+        int remaining = limit - position;
+        long start = windowStart + position;
+        long size = Math.max(WINDOW_SIZE, remaining == data.capacity() ? (long) remaining * 2 : 0);
+        size = Math.min(Math.min(size, Integer.MAX_VALUE), fileSize - start);
+        try {
+            data = file.map(FileChannel.MapMode.READ_ONLY, start, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        windowStart = start;
+        position = 0;
+        limit = (int) size;
+        endOfInput = start + size >= fileSize;
+    }
+
+    /**
+     * Moves the unread bytes to the front of the buffer and reads more after them.
+     * The buffer is doubled when a single line does not fit in it or the last read filled it,
+     * and goes back to its initial size when it is empty and the last read did not fill it.
+     */
+    private void read() {
+        int remaining = limit - position;
+        int capacity = data.capacity();
+        if (remaining == capacity || (lastReadFilled && capacity < BUFFER_SIZE)) {
+            capacity *= 2;
+        } else if (remaining == 0 && !lastReadFilled && capacity > INITIAL_BUFFER_SIZE) {
+            capacity = INITIAL_BUFFER_SIZE;
+        }
+        if (capacity != data.capacity()) {
+            ByteBuffer resized = ByteBuffer.allocate(capacity);
+            System.arraycopy(data.array(), position, resized.array(), 0, remaining);
+            data = resized;
+        } else if (position > 0) {
+            System.arraycopy(data.array(), position, data.array(), 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        try {
+            data.clear().position(limit);
+            int read = channel.read(data);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+            lastReadFilled = !data.hasRemaining();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int parseInt(int start, int end) {
+        if (start >= end) {
+            return NOT_A_NUMBER;
+        }
+        boolean negative = false;
+        byte sign = data.get(start);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            start++;
+            if (start == end) {
+                return NOT_A_NUMBER;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                return NOT_A_NUMBER;
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private int indexOf(char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private static byte toUpperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? (byte) (b - ('a' - 'A')) : b;
+    }
+}
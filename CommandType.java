@@ -0,0 +1,59 @@
+/**
+ * The commands understood by the scheduler.
+ */
+public enum CommandType {
+    SCHEDULE("S"),
+    CANCEL("C"),
+    RESCHEDULE("R"),
+    PRINT_BY_APPOINTMENT("PA"),
+    PRINT_BY_PATIENT("PP"),
+    PRINT_BY_LOCATION("PL"),
+    PRINT_BILLING("PS"),
+    METRICS("M"),
+    QUIT("Q"),
+    INVALID("?");
+
+    private final String code;
+
+    CommandType(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Gets the code the command is typed as.
+     * @return the code, or "?" for INVALID.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Decodes a command code such as "S" or "PA" from bytes without building a String.
+     * @param first The first byte of the code.
+     * @param second The second byte of the code, ignored for one-byte codes.
+     * @param length The length of the code in bytes.
+     * @return the matching command, or INVALID if the code is unknown.
+     */
+    public static CommandType of(byte first, byte second, int length) {
+        if (length == 1) {
+            switch (first) {
+                case 'S': return SCHEDULE;
+                case 'C': return CANCEL;
+                case 'R': return RESCHEDULE;
+                case 'M': return METRICS;
+                case 'Q': return QUIT;
+                default: return INVALID;
+            }
+        }
+        if (length == 2 && first == 'P') {
+            switch (second) {
+                case 'A': return PRINT_BY_APPOINTMENT;
+                case 'P': return PRINT_BY_PATIENT;
+                case 'L': return PRINT_BY_LOCATION;
+                case 'S': return PRINT_BILLING;
+                default: return INVALID;
+            }
+        }
+        return INVALID;
+    }
+}
@@ -1,20 +1,34 @@
-import java.util.Calendar;
+import java.util.TimeZone;
 
 /**
  * Represents a date with year, month, and day.
  * Provides methods for validating dates and checking relationships with other dates.
+ * The epoch day is computed once when the date is built, so comparisons and the
+ * today, weekend and six-month checks are integer arithmetic.
  */
 public class Date implements Comparable<Date> {
 
-    private int year;
-    private int month;
-    private int day;
+    private final int year;
+    private final int month;
+    private final int day;
+    private final int epochDay;
 
     // Constants for date validation
     public static final int QUADRENNIAL = 4;
     public static final int CENTENNIAL = 100;
     public static final int QUATERCENTENNIAL = 400;
 
+    private static final int[] DAYS_IN_MONTH = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int DAYS_FROM_ERA_TO_EPOCH = 719468;
+    private static final int SATURDAY = 5; // days since Monday
+    private static final int MAX_YEAR = 9999;
+    private static final int MONTHS_AHEAD = 6;
+    private static final TimeZone ZONE = TimeZone.getDefault();
+    private static final int CACHE_FIRST_DAY = epochDayOf(1900, 1, 1);
+    private static final Date[] CACHE = new Date[epochDayOf(2100, 1, 1) - CACHE_FIRST_DAY]; // filled on first use
+
     /**
      * Constructor for the Date class.
      * @param year The year of the date.
@@ -25,6 +39,7 @@ public class Date implements Comparable<Date> {
         this.year = year;
         this.month = month;
         this.day = day;
+        this.epochDay = epochDayOf(year, month, day);
     }
 
 
@@ -34,26 +49,33 @@ public class Date implements Comparable<Date> {
      * @return true if the date is valid, false otherwise.
      */
     public boolean isValid() {
+        return isValid(year, month, day);
+    }
+
+    /**
+     * Checks if a year, month and day make a valid calendar date.
+     */
+    private static boolean isValid(int year, int month, int day) {
 
-        //simple error handling for days and months
-        if (this.year < 1 || this.month < 1 || this.month > 12 || this.day < 1) {
+        //simple error handling for days and months; later years would not give an exact epoch day
+        if (year < 1 || year > MAX_YEAR || month < 1 || month > 12 || day < 1) {
             return false;
         }
 
-        int[] daysInMonth = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31}; //im just adding 0 so I dont need to worry about subrtacting 1 from index later
-
-        if (isLeapYear() && month == 2) {
+        //DAYS_IN_MONTH starts with 0 so I dont need to worry about subrtacting 1 from index later
+        if (isLeapYear(year) && month == 2) {
             return day <= 29;
         }
 
-        return day <= daysInMonth[month];
+        return day <= DAYS_IN_MONTH[month];
     }
 
     /**
-     * Checks if the year is a leap year.
+     * Checks if a year is a leap year.
+     * @param year The year to check.
      * @return true if it's a leap year, false otherwise.
      */
-    private boolean isLeapYear() {
+    private static boolean isLeapYear(int year) {
         if (year % QUADRENNIAL == 0) {
             if (year % CENTENNIAL == 0) {
                 return year % QUATERCENTENNIAL == 0;
@@ -68,10 +90,7 @@ public class Date implements Comparable<Date> {
      * @return true if it's today or a past date, false otherwise.
      */
     public boolean isBeforeOrEqualToToday() {
-        Calendar today = Calendar.getInstance();
-        Calendar thisDate = Calendar.getInstance();
-        thisDate.set(year, month - 1, day);
-        return thisDate.compareTo(today) <= 0;
+        return epochDay <= todayEpochDay();
     }
 
     /**
@@ -79,10 +98,7 @@ public class Date implements Comparable<Date> {
      * @return true if it's today or a date after, false otherwise.
      */
     public boolean isAfterOrEqualToToday() {
-        Calendar today = Calendar.getInstance();
-        Calendar thisDate = Calendar.getInstance();
-        thisDate.set(year, month - 1, day);
-        return thisDate.compareTo(today) >= 0;
+        return epochDay >= todayEpochDay();
     }
 
     /**
@@ -90,10 +106,7 @@ public class Date implements Comparable<Date> {
      * @return true if it's a weekend, false otherwise.
      */
     public boolean isWeekend() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(year, month - 1, day);
-        int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-        return dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY;
+        return Math.floorMod(epochDay + 3, 7) >= SATURDAY; // 1/1/1970 was a Thursday
     }
 
     /**
@@ -101,14 +114,118 @@ public class Date implements Comparable<Date> {
      * @return true if it's within six months, false otherwise.
      */
     public boolean isWithinSixMonths() {
-        Calendar today = Calendar.getInstance();
-        Calendar sixMonthsLater = (Calendar) today.clone();
-        sixMonthsLater.add(Calendar.MONTH, 6);
+        int today = todayEpochDay();
+        return epochDay >= today && epochDay <= sixMonthsAfter(today);
+    }
+
+    /**
+     * Gets the number of days since 1/1/1970.
+     * @return the epoch day of the date.
+     */
+    public int toEpochDay() {
+        return epochDay;
+    }
 
-        Date todayDate = new Date(today.get(Calendar.YEAR), today.get(Calendar.MONTH) + 1, today.get(Calendar.DAY_OF_MONTH));
-        Date sixMonthsLaterDate = new Date(sixMonthsLater.get(Calendar.YEAR), sixMonthsLater.get(Calendar.MONTH) + 1, sixMonthsLater.get(Calendar.DAY_OF_MONTH));
+    /**
+     * Gets the epoch day of the current date in the default time zone.
+     * @return today's epoch day.
+     */
+    public static int todayEpochDay() {
+        long now = System.currentTimeMillis();
+        return (int) Math.floorDiv(now + ZONE.getOffset(now), MILLIS_PER_DAY);
+    }
 
-        return this.compareTo(todayDate) >= 0 && this.compareTo(sixMonthsLaterDate) <= 0;
+    /**
+     * Gets the epoch day six months after another one.
+     * The day of month is clamped to the end of the target month, as Calendar.add does.
+     * @param epochDay The starting epoch day.
+     * @return the epoch day six months later.
+     */
+    public static int sixMonthsAfter(int epochDay) {
+        int civil = civilOf(epochDay);
+        int y = civil >> 9;
+        int m = (civil >> 5) & 15;
+        int d = civil & 31;
+
+        m += MONTHS_AHEAD;
+        if (m > 12) {
+            m -= 12;
+            y++;
+        }
+        int lastDay = (m == 2 && isLeapYear(y)) ? 29 : DAYS_IN_MONTH[m];
+        return epochDayOf(y, m, Math.min(d, lastDay));
+    }
+
+    /**
+     * Gets a date, sharing one instance per calendar day from 1900 through 2099 so that
+     * parsing the same date again does not allocate. Other dates, and values that are not
+     * a calendar date, get a new instance.
+     * @param year The year of the date.
+     * @param month The month of the date (1-12).
+     * @param day The day of the date.
+     * @return the date.
+     */
+    public static Date of(int year, int month, int day) {
+        if (!isValid(year, month, day)) {
+            return new Date(year, month, day);
+        }
+        int index = epochDayOf(year, month, day) - CACHE_FIRST_DAY;
+        if (index < 0 || index >= CACHE.length) {
+            return new Date(year, month, day);
+        }
+        Date date = CACHE[index];
+        if (date == null) {
+            date = new Date(year, month, day); // final fields, so a racing reader sees it whole
+            CACHE[index] = date;
+        }
+        return date;
+    }
+
+    /**
+     * Builds the date that falls a given number of days after 1/1/1970.
+     * @param epochDay The epoch day.
+     * @return the date.
+     */
+    public static Date ofEpochDay(int epochDay) {
+        int civil = civilOf(epochDay);
+        return new Date(civil >> 9, (civil >> 5) & 15, civil & 31);
+    }
+
+    /**
+     * Converts an epoch day to a year, month and day packed as year << 9 | month << 5 | day.
+     * This is the inverse of epochDayOf and does not allocate.
+     */
+    private static int civilOf(int epochDay) {
+        int shifted = epochDay + DAYS_FROM_ERA_TO_EPOCH;
+        int era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        int dayOfEra = shifted - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int d = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int m = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int y = yearOfEra + era * QUATERCENTENNIAL + (m <= 2 ? 1 : 0);
+        return (y << 9) | (m << 5) | d;
+    }
+
+    /**
+     * Converts a year, month and day to the number of days since 1/1/1970.
+     * Months and days outside their range roll over the same way a lenient Calendar would.
+     * The arithmetic is done in long, and a day too far from 1970 for an int is clamped to
+     * the int range, so a far-future date never wraps around to a past one.
+     */
+    private static int epochDayOf(int year, int month, int day) {
+        long y = year + Math.floorDiv((long) month - 1, 12);
+        int m = Math.floorMod((long) month - 1, 12) + 1;
+        if (m <= 2) {
+            y--;
+        }
+        long era = Math.floorDiv(y, QUATERCENTENNIAL);
+        long yearOfEra = y - era * QUATERCENTENNIAL;
+        int dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL + dayOfYear;
+        long epochDay = era * DAYS_PER_ERA + dayOfEra - DAYS_FROM_ERA_TO_EPOCH + day - 1;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, epochDay));
     }
 
     /**
@@ -130,7 +247,17 @@ public class Date implements Comparable<Date> {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Date date = (Date) obj;
-        return year == date.year && month == date.month && day == date.day;
+        // different epoch days settle it in one compare; the fields only matter for invalid dates that roll over
+        return epochDay == date.epochDay && year == date.year && month == date.month && day == date.day;
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     * @return the hash code of the date.
+     */
+    @Override
+    public int hashCode() {
+        return epochDay;
     }
 
     /**
@@ -140,6 +267,9 @@ public class Date implements Comparable<Date> {
      */
     @Override
     public int compareTo(Date other) {
+        if (this.epochDay != other.epochDay) {
+            return Integer.compare(this.epochDay, other.epochDay);
+        }
         if (this.year != other.year) {
             return Integer.compare(this.year, other.year);
         }
@@ -199,5 +329,10 @@ public class Date implements Comparable<Date> {
         // Test case 6
         Date testDate6 = new Date(2024, 10, 11);
         System.out.println("Test case 6: " + testDate6.isValid()); // Expected: true
+
+        // Test case 7: a year whose epoch day would overflow an int, as a date of birth
+        Date testDate7 = new Date(8_000_000, 1, 1);
+        System.out.println("Test case 7: " + testDate7.isValid() + ", "
+                + testDate7.isAfterOrEqualToToday()); // Expected: false, true
     }
 }
\ No newline at end of file
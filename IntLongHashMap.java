@@ -0,0 +1,168 @@
+/**
+ * Open-addressing hash map from int keys to long values.
+ * Keys and values live in two primitive arrays, so lookups, inserts and removals
+ * do not allocate. The key 0 is reserved to mark empty slots.
+ */
+public class IntLongHashMap {
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * Constructor for the IntLongHashMap class.
+     * Initializes an empty map.
+     */
+    public IntLongHashMap() {
+        keys = new int[16];
+        values = new long[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return the size of the map.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the map contains a key.
+     * @param key The key to look for.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean containsKey(int key) {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    /**
+     * Gets the value stored for a key.
+     * @param key The key to look for.
+     * @param missing The value to return when the key is absent.
+     * @return the stored value, or missing if the key is absent.
+     */
+    public long get(int key, long missing) {
+        int slot = slotOf(key);
+        return keys[slot] != EMPTY ? values[slot] : missing;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     * @param key The key, must not be 0.
+     * @param value The value to store.
+     */
+    public void put(int key, long value) {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Adds to the value stored for a key, starting from 0 if the key is absent.
+     * @param key The key, must not be 0.
+     * @param delta The amount to add.
+     * @return the new value.
+     */
+    public long add(int key, long delta) {
+        int slot = slotOf(key);
+        if (keys[slot] != EMPTY) {
+            return values[slot] += delta;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @return true if the key was present, false otherwise.
+     */
+    public boolean remove(int key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            return false;
+        }
+        // shift later entries of the probe chain back so no tombstone is needed
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every key from the map.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EMPTY;
+        }
+        size = 0;
+    }
+
+    /**
+     * Copies the keys of the map into a new array, in no particular order.
+     * @return the keys.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                result[count++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts every key.
+     */
+    private void rehash() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        key *= 0x9E3779B9;
+        return key ^ (key >>> 16);
+    }
+}
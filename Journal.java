@@ -0,0 +1,488 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of the changes made to the appointment list.
+ * Every successful S, C and R, and every PS that clears the list, is written as one
+ * small binary record. A change is only reported once commit has returned, and commit
+ * returns once the change's record has been forced to disk, so no acknowledged change is
+ * lost in a crash. Records are collected in memory and forced together (group commit):
+ * the first committer to find its record unsynced writes and forces every record waiting,
+ * and the records appended while that fsync runs go into the other buffer and are forced
+ * together by the next one. Appends themselves only copy into a buffer, and the fsync
+ * holds no lock, so the next group is written while the last one is still being forced.
+ * On startup the journal is replayed into the list to rebuild it.
+ * Once a snapshot holds the state at some offset, the records before it can be discarded;
+ * offsets keep counting from the start of the very first journal, so a snapshot's offset
+ * stays valid after the file has been rewritten without them.
+ *
+ * The file starts with a 16-byte header, [int magic][int version][long base offset],
+ * where the base offset is the offset of the first record kept in the file.
+ * A record is [int length][int CRC32C of the payload][payload], where the payload is
+ * [byte type][int epoch day][byte timeslot][byte provider][byte new timeslot]
+ * [int dob epoch day][int length, first name][int length, last name],
+ * or just the type byte for a clear. A torn or corrupt tail is cut off on replay.
+ */
+public class Journal implements Closeable {
+    private static final byte SCHEDULE = 'S';
+    private static final byte CANCEL = 'C';
+    private static final byte RESCHEDULE = 'R';
+    private static final byte CLEAR = 'X';
+    private static final int MAGIC = 0x5255534A; // "RUSJ"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+    private static final Provider[] PROVIDERS = Provider.values();
+
+    private final Path path;
+    private FileChannel channel; // replaced when records are discarded, under writeLock
+    private long base; // offset of the first record in the file
+    private final CRC32C crc;
+    private final Object writeLock; // held while a group is written, so groups reach the file in order
+    private ByteBuffer buffer; // records waiting for the next group commit
+    private ByteBuffer spare; // the other buffer, free whenever writeLock is free
+    private int pending;
+    private long appended; // sequence number of the last record appended
+    private long durable; // sequence number of the last record forced to disk
+    private boolean syncing; // a committer is writing and forcing a group
+    private volatile long records; // records replayed or appended since the journal was opened
+    private long length; // offset of the end of the journal, including records not yet synced
+    private boolean closed;
+
+    /**
+     * Opens a journal file, creating it if it does not exist.
+     * Call replay before appending so that a torn tail is removed first.
+     * @param path The journal file.
+     * @throws IOException if the file cannot be opened or is not a journal.
+     */
+    public Journal(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeHeader(channel, 0);
+            channel.force(false);
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.position() < FILE_HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a scheduler journal");
+        }
+        base = header.getLong(8);
+        length = base + channel.size() - FILE_HEADER_SIZE;
+        channel.position(channel.size());
+        crc = new CRC32C();
+        writeLock = new Object();
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        spare = ByteBuffer.allocate(BUFFER_SIZE);
+        pending = 0;
+        appended = 0;
+        durable = 0;
+        syncing = false;
+        records = 0;
+        closed = false;
+    }
+
+    /**
+     * Waits until every record appended so far has been forced to disk.
+     * The first caller to find records unsynced writes and forces them, together with any
+     * appended meanwhile; callers that arrive while it does wait for it, then for the next
+     * group if theirs was not in it. Call it after releasing any lock, so that changes made
+     * meanwhile can join the next group.
+     */
+    public void commit() {
+        boolean interrupted = false;
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+        while (true) {
+            synchronized (this) {
+                while (durable < sequence && syncing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true; // the record must still be on disk before returning
+                    }
+                }
+                if (durable >= sequence) {
+                    break;
+                }
+                syncing = true;
+            }
+            try {
+                sync();
+            } finally {
+                synchronized (this) {
+                    syncing = false;
+                    notifyAll();
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Records a booked appointment.
+     * @param appointment The appointment that was added.
+     */
+    public void appendSchedule(Appointment appointment) {
+        append(SCHEDULE, appointment, null);
+    }
+
+    /**
+     * Records a canceled appointment.
+     * @param appointment The appointment that was removed.
+     */
+    public void appendCancel(Appointment appointment) {
+        append(CANCEL, appointment, null);
+    }
+
+    /**
+     * Records an appointment moved to another timeslot on the same day.
+     * @param appointment The appointment before it was moved.
+     * @param newTimeslot The timeslot it was moved to.
+     */
+    public void appendReschedule(Appointment appointment, Timeslot newTimeslot) {
+        append(RESCHEDULE, appointment, newTimeslot);
+    }
+
+    /**
+     * Records that every appointment was removed, as PS does after billing.
+     */
+    public void appendClear() {
+        while (true) {
+            synchronized (this) {
+                if (reserve(HEADER_SIZE + 1)) {
+                    int start = buffer.position();
+                    buffer.position(start + HEADER_SIZE);
+                    buffer.put(CLEAR);
+                    finishRecord(start);
+                    return;
+                }
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Replays every complete record into a list, then cuts off anything after the last one.
+     * @param list The list to rebuild.
+     * @return the number of records replayed.
+     * @throws IOException if the file cannot be read or truncated.
+     */
+    public synchronized long replay(List list) throws IOException {
+        return replay(list, 0);
+    }
+
+    /**
+     * Replays the complete records from an offset on, such as the offset a snapshot was taken at,
+     * then cuts off anything after the last one.
+     * @param list The list to rebuild, already holding the state at the offset.
+     * @param from The offset of the first record to replay.
+     * @return the number of records replayed.
+     * @throws IOException if the file cannot be read or truncated, or its records before
+     *         the offset have already been discarded.
+     */
+    public synchronized long replay(List list, long from) throws IOException {
+        if (from < base) {
+            throw new IOException(path + " starts at offset " + base + "; the records before it are only in a snapshot");
+        }
+        long size = channel.size();
+        long offset = Math.min(FILE_HEADER_SIZE + from - base, size);
+        long count = 0;
+        PatientRegistry patients = new PatientRegistry(); // so replayed appointments share profiles
+        while (offset < size) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, Integer.MAX_VALUE));
+            int position = 0;
+            while (data.limit() - position >= HEADER_SIZE) {
+                int length = data.getInt(position);
+                if (length <= 0 || length > data.limit() - position - HEADER_SIZE) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data.slice(position + HEADER_SIZE, length));
+                if ((int) crc.getValue() != data.getInt(position + 4)) {
+                    break;
+                }
+                apply(data, position + HEADER_SIZE, list, patients);
+                position += HEADER_SIZE + length;
+                count++;
+            }
+            if (position == 0) {
+                break; // no complete record left
+            }
+            offset += position;
+        }
+        if (offset < size) {
+            channel.truncate(offset);
+        }
+        channel.position(offset);
+        records = count;
+        length = base + offset - FILE_HEADER_SIZE;
+        return count;
+    }
+
+    /**
+     * Gets the number of records replayed or appended, including ones not yet synced.
+     * It is read without locking, so it is cheap to check after every command.
+     * @return the number of records.
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Gets the offset of the end of the journal, including records not yet synced.
+     * This is the offset a snapshot of the current state is taken at.
+     * @return the offset in bytes, counting any records already discarded.
+     */
+    public synchronized long getLength() {
+        return length;
+    }
+
+    /**
+     * Writes every waiting record to the file and forces it to disk.
+     * The waiting records are swapped out under the monitor and written under writeLock,
+     * so appends carry on into the other buffer; the fsync holds neither, so the next
+     * group can be written while this one is being forced.
+     */
+    public void sync() {
+        long sequence;
+        FileChannel target;
+        synchronized (writeLock) {
+            ByteBuffer group = null;
+            synchronized (this) {
+                sequence = appended;
+                if (durable >= sequence) {
+                    return;
+                }
+                if (pending > 0) {
+                    group = buffer;
+                    buffer = spare;
+                    pending = 0;
+                } // otherwise another thread has written them and may still be forcing them
+            }
+            if (group != null) {
+                try {
+                    group.flip();
+                    while (group.hasRemaining()) {
+                        channel.write(group);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    group.clear();
+                    spare = group;
+                }
+            }
+            target = channel;
+        }
+        try {
+            target.force(false);
+        } catch (ClosedChannelException e) {
+            synchronized (writeLock) {
+                synchronized (this) {
+                    if (target == channel && !closed) {
+                        throw new UncheckedIOException(e);
+                    } // replaced by discardBefore or closed by close, both of which forced it after this write
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            durable = Math.max(durable, sequence);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Discards the records before an offset, once a snapshot that includes them has been written.
+     * The records from the offset on are copied into a new file that then replaces this one,
+     * so a crash leaves either the old journal or the new one. Appends carry on meanwhile;
+     * only writing the next group waits for the copy.
+     * @param offset The journal offset the snapshot was taken at.
+     * @throws IOException if the new file cannot be written.
+     */
+    public void discardBefore(long offset) throws IOException {
+        synchronized (writeLock) {
+            sync(); // every record up to the offset is in the file
+            if (offset <= base) {
+                return;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            FileChannel compacted = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                writeHeader(compacted, offset);
+                long end = channel.size();
+                for (long position = FILE_HEADER_SIZE + offset - base; position < end; ) {
+                    position += channel.transferTo(position, end - position, compacted);
+                }
+                compacted.force(false);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                compacted.close();
+                throw e;
+            }
+            channel.close();
+            channel = compacted; // still open on the file, now under the journal's name
+            base = offset;
+        }
+    }
+
+    /**
+     * Syncs the waiting records and closes the file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true; // no more appends
+        }
+        sync();
+        try {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the file header at the start of a channel, leaving it positioned after it.
+     */
+    private static void writeHeader(FileChannel channel, long base) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(base).flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void append(byte type, Appointment appointment, Timeslot newTimeslot) {
+        Profile patient = appointment.getPatient();
+        byte[] firstName = patient.getFirstName().getBytes(StandardCharsets.UTF_8);
+        byte[] lastName = patient.getLastName().getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_SIZE + 20 + firstName.length + lastName.length;
+        while (true) {
+            synchronized (this) {
+                if (reserve(size)) {
+                    int start = buffer.position();
+                    buffer.position(start + HEADER_SIZE);
+                    buffer.put(type);
+                    buffer.putInt(appointment.getDate().toEpochDay());
+                    buffer.put((byte) appointment.getTimeslot().ordinal());
+                    buffer.put((byte) appointment.getProvider().ordinal());
+                    buffer.put((byte) (newTimeslot == null ? 0 : newTimeslot.ordinal()));
+                    buffer.putInt(patient.getDob().toEpochDay());
+                    buffer.putInt(firstName.length);
+                    buffer.put(firstName);
+                    buffer.putInt(lastName.length);
+                    buffer.put(lastName);
+                    finishRecord(start);
+                    return;
+                }
+            }
+            sync(); // both buffers are full; write one from this thread
+        }
+    }
+
+    /**
+     * Fills in the header of the record that starts at start and gives it the next sequence number.
+     */
+    private void finishRecord(int start) {
+        int length = buffer.position() - start - HEADER_SIZE;
+        crc.reset();
+        crc.update(buffer.array(), start + HEADER_SIZE, length);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        pending++;
+        appended++;
+        records++;
+        this.length += HEADER_SIZE + length;
+    }
+
+    /**
+     * Checks that the buffer has room for a record of the given size, growing it if it is
+     * empty but too small for the record.
+     * @return true if the record fits, false if the waiting records must be synced first.
+     */
+    private boolean reserve(int size) {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+        if (pending == 0) {
+            buffer = ByteBuffer.allocate(Math.max(size, BUFFER_SIZE));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the record payload at position and applies it to the list,
+     * with the patient's profile taken from a registry of the profiles replayed so far.
+     */
+    private static void apply(ByteBuffer data, int position, List list, PatientRegistry patients) {
+        byte type = data.get(position);
+        if (type == CLEAR) {
+            list.clear();
+            return;
+        }
+        Date date = Date.ofEpochDay(data.getInt(position + 1));
+        Timeslot timeslot = TIMESLOTS[data.get(position + 5)];
+        Provider provider = PROVIDERS[data.get(position + 6)];
+        Timeslot newTimeslot = TIMESLOTS[data.get(position + 7)];
+        Date dob = Date.ofEpochDay(data.getInt(position + 8));
+        int firstLength = data.getInt(position + 12);
+        String firstName = decode(data, position + 16, firstLength);
+        int lastLength = data.getInt(position + 16 + firstLength);
+        String lastName = decode(data, position + 20 + firstLength, lastLength);
+        Profile patient = patients.canonical(new Profile(firstName, lastName, dob));
+        Appointment appointment = new Appointment(date, timeslot, patient, provider);
+        switch (type) {
+            case SCHEDULE:
+                list.add(appointment);
+                break;
+            case CANCEL:
+                list.remove(appointment);
+                break;
+            case RESCHEDULE:
+                list.remove(appointment);
+                list.add(new Appointment(date, newTimeslot, appointment.getPatient(), provider));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String decode(ByteBuffer data, int position, int length) {
+        byte[] bytes = new byte[length];
+        data.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-bucketed histogram of latencies in nanoseconds.
+ * Every power of two is split into SUB_BUCKETS linear buckets, so a recorded value is
+ * off by at most 1/SUB_BUCKETS (12.5%) and the whole range of a long fits in a few hundred
+ * counters. Recording is one increment of an AtomicLongArray element: it never allocates
+ * and never blocks, so any number of threads can record into the same histogram.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructor for the LatencyHistogram class.
+     * Initializes an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Records one latency.
+     * @param nanos The latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     * @return the count.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the latency below which a fraction of the recorded latencies fall.
+     * @param fraction The fraction, such as 0.99 for the 99th percentile.
+     * @return the upper bound of the bucket holding that latency, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    /**
+     * Gets the upper bound of the highest bucket that holds a latency.
+     * @return the maximum latency, to within a bucket, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return upperBoundOf(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes every recorded latency.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Finds the bucket of a latency.
+     * Values below SUB_BUCKETS get a bucket each; above that, the position of the highest
+     * set bit picks the power of two and the next SUB_BUCKET_BITS bits pick the sub-bucket.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest value that falls in a bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowest = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowest + width - 1 < 0 ? Long.MAX_VALUE : lowest + width - 1;
+    }
+
+    // Testbed main
+
+    /**
+     * Main method for testing the LatencyHistogram class.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        // Test case 1
+        System.out.println("Test case 1: " + histogram.getCount()); // Expected: 1000
+
+        // Test case 2
+        long median = histogram.getPercentile(0.5);
+        System.out.println("Test case 2: " + (median >= 500_000 && median <= 500_000 * 9 / 8)); // Expected: true
+
+        // Test case 3
+        long max = histogram.getMax();
+        System.out.println("Test case 3: " + (max >= 1_000_000 && max <= 1_000_000 * 9 / 8)); // Expected: true
+
+        // Test case 4
+        histogram.reset();
+        System.out.println("Test case 4: " + histogram.getPercentile(0.99)); // Expected: 0
+    }
+}
@@ -1,20 +1,63 @@
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
 /**
  * Represents a list of appointments for scheduling.
  * It provides functionalities to add, remove, and print appointments
  * in various orderings (by patient, location, or appointment).
+ * Every appointment is also indexed by its packed key, so contains and remove
+ * do not scan the array, and by its provider slot, so availability checks
+ * are a single bit test. The three print orderings are kept up to date as
+ * sorted views, so printing never sorts and never reorders the array.
+ * A billing ledger keeps every patient's balance up to date as appointments
+ * come and go, so billing statements only read it.
  */
 
 public class List {
     private Appointment[] appointments;
+    private long[] bookingOrder; // when each appointment was booked, parallel to appointments
+    private long nextBookingOrder;
     private int size;
+    private LongIntHashMap index; // appointment key -> position in appointments
+    private PatientRegistry patients;
+    private SlotOccupancy occupancy;
+    private OrderedSet<Appointment> byAppointment; // date/time/provider
+    private OrderedSet<Appointment> byPatient; // patient/date/time
+    private OrderedSet<Appointment> byLocation; // county/date/time
+    private BillingLedger ledger;
+    private OutputStream output; // where the print commands write
+    private ReportWriter report; // created by the first print command
 
     /**
      * Constructor for the List class.
-     * Initializes an empty list with a capacity of 4 appointments.
+     * Initializes an empty list with a capacity of 4 appointments and a patient registry
+     * of its own.
      */
     public List() {
+        this(new PatientRegistry());
+    }
+
+    /**
+     * Constructor for the List class with a patient registry that may be shared,
+     * such as by the shards of a SchedulingCore.
+     * @param patients The registry that assigns patient ids for the appointment keys.
+     */
+    public List(PatientRegistry patients) {
         appointments = new Appointment[4];
+        bookingOrder = new long[4];
+        nextBookingOrder = 0;
         size = 0;
+        index = new LongIntHashMap();
+        this.patients = patients;
+        occupancy = new SlotOccupancy();
+        byAppointment = new OrderedSet<>(ListOrder.BY_APPOINTMENT);
+        byPatient = new OrderedSet<>(ListOrder.BY_PATIENT);
+        byLocation = new OrderedSet<>(ListOrder.BY_LOCATION);
+        ledger = new BillingLedger();
+        output = System.out;
+        report = null;
     }
 
 
@@ -44,23 +87,44 @@ public class List {
      * @return The index of the appointment if found, -1 otherwise.
      */
     private int find(Appointment appointment) {
-        for (int i = 0; i < size; i++) {
-            if (appointments[i].equals(appointment)) {
-                return i;
-            }
+        long key = keyOf(appointment, false);
+        if (key == AppointmentKey.NONE) {
+            return -1;
         }
-        return -1;
+        return index.get(key, -1);
     }
 
     /**
-     * Increases the capacity of the appointments array by 4.
+     * Builds the packed key of an appointment.
+     * @param appointment The appointment to encode.
+     * @param intern true to register the patient if it has not been seen before.
+     * @return the key, or AppointmentKey.NONE if the appointment cannot be in the list.
+     */
+    private long keyOf(Appointment appointment, boolean intern) {
+        Date date = appointment.getDate();
+        if (date == null || appointment.getTimeslot() == null || appointment.getProvider() == null
+                || appointment.getPatient() == null || !date.isValid()) {
+            return AppointmentKey.NONE;
+        }
+        int patientId = intern ? patients.intern(appointment.getPatient()) : patients.find(appointment.getPatient());
+        if (patientId == 0) {
+            return AppointmentKey.NONE;
+        }
+        return AppointmentKey.of(date.toEpochDay(), appointment.getTimeslot(), appointment.getProvider(), patientId);
+    }
+
+    /**
+     * Doubles the capacity of the appointments array.
      */
     private void grow() {
-        Appointment[] newAppointments = new Appointment[appointments.length + 4];
+        Appointment[] newAppointments = new Appointment[appointments.length * 2];
         for (int i = 0; i < size; i++) {
             newAppointments[i] = appointments[i];
         }
         appointments = newAppointments;
+        long[] newBookingOrder = new long[appointments.length];
+        System.arraycopy(bookingOrder, 0, newBookingOrder, 0, size);
+        bookingOrder = newBookingOrder;
     }
 
     /**
@@ -72,330 +136,303 @@ public class List {
         return find(appointment) != -1;
     }
 
+    /**
+     * Checks if a provider already has an appointment at a date and timeslot.
+     * @param date The date to check.
+     * @param timeslot The timeslot to check.
+     * @param provider The provider to check.
+     * @return true if the provider is booked at that slot, false otherwise.
+     */
+    public boolean isSlotTaken(Date date, Timeslot timeslot, Provider provider) {
+        return occupancy.isTaken(date.toEpochDay(), timeslot, provider);
+    }
+
+    /**
+     * Gets when an appointment was booked, relative to the others.
+     * @param appointment The appointment to look up.
+     * @return the booking order, lower for earlier bookings, or -1 if the appointment is not in the list.
+     */
+    public long getBookingOrder(Appointment appointment) {
+        int position = find(appointment);
+        return position == -1 ? -1 : bookingOrder[position];
+    }
+
     /**
      * Adds an appointment to the list.
+     * An appointment that is already in the list is not added again.
      * @param appointment The appointment to add.
      */
     public void add(Appointment appointment) {
+        add(appointment, nextBookingOrder);
+    }
+
+    /**
+     * Adds an appointment to the list with a booking order chosen by the caller,
+     * so that appointments split over several lists can still be told apart by age.
+     * An appointment that is already in the list is not added again.
+     * @param appointment The appointment to add.
+     * @param order The booking order, increasing with each booking.
+     */
+    public void add(Appointment appointment, long order) {
+        long key = keyOf(appointment, true);
+        if (key == AppointmentKey.NONE || index.containsKey(key)) {
+            return;
+        }
         if (size == appointments.length) {
             grow();
         }
+        index.put(key, size);
+        bookingOrder[size] = order;
+        nextBookingOrder = Math.max(nextBookingOrder, order + 1);
         appointments[size++] = appointment;
+        occupancy.take(AppointmentKey.epochDay(key), appointment.getTimeslot(), appointment.getProvider());
+        byAppointment.add(appointment);
+        byPatient.add(appointment);
+        byLocation.add(appointment);
+        int patientId = AppointmentKey.patient(key);
+        ledger.charge(patientId, patients.getProfile(patientId), chargeOf(appointment));
     }
 
     /**
      * Removes an appointment from the list.
+     * The last appointment is moved into the freed position.
      * @param appointment The appointment to remove.
      */
     public void remove(Appointment appointment) {
-        int index = find(appointment);
-        if (index != -1) {
-            for (int i = index; i < size - 1; i++) {
-                appointments[i] = appointments[i + 1];
-            }
-            appointments[--size] = null;
-        }
-    }
-
-    private void swap(int i, int j) {
-        Appointment temp = appointments[i];
-        appointments[i] = appointments[j];
-        appointments[j] = temp;
-    }
-
-    private void sortByPatient() {
-        for (int i = 0; i < size - 1; i++) {
-            int minIdx = i;
-            for (int j = i + 1; j < size; j++) {
-                if (comparePatients(appointments[j], appointments[minIdx]) < 0) {
-                    minIdx = j;
-                }
-            }
-            swap(i, minIdx);
-        }
-        sortByDateAfterPatient();
-    }
-
-    private void sortByDateAfterPatient() {
-        for (int i = 0; i < size - 1; i++) {
-            if (appointments[i].getPatient().equals(appointments[i + 1].getPatient())) {
-                int j = i + 1;
-                while (j < size && appointments[j].getPatient().equals(appointments[i].getPatient())) {
-                    j++;
-                }
-                sortSubArrayByDate(i, j - 1);
-                i = j - 1;
-            }
-        }
-    }
-
-    private int comparePatients(Appointment a1, Appointment a2) {
-        int lastNameComparison = a1.getPatient().getLastName().compareTo(a2.getPatient().getLastName());
-        if (lastNameComparison != 0) return lastNameComparison;
-        return a1.getPatient().getFirstName().compareTo(a2.getPatient().getFirstName());
-    }
-
-    private void sortByLocation() {
-        for (int i = 0; i < size - 1; i++) {
-            int minIdx = i;
-            for (int j = i + 1; j < size; j++) {
-                if (compareLocations(appointments[j], appointments[minIdx]) < 0) {
-                    minIdx = j;
-                }
-            }
-            swap(i, minIdx);
-        }
-        sortByDateAfterLocation();
-    }
-
-    private void sortByDateAfterLocation() {
-        for (int i = 0; i < size - 1; i++) {
-            String county = appointments[i].getProvider().getLocation().getCounty();
-            int j = i + 1;
-            while (j < size && appointments[j].getProvider().getLocation().getCounty().equals(county)) {
-                j++;
-            }
-            sortSubArrayByDate(i, j - 1);
-            i = j - 1;
-        }
-    }
-
-    private int compareLocations(Appointment a1, Appointment a2) {
-        return a1.getProvider().getLocation().getCounty().compareToIgnoreCase(a2.getProvider().getLocation().getCounty());
-    }
-
-    private void sortByAppointment() {
-        for (int i = 0; i < size - 1; i++) {
-            int minIdx = i;
-            for (int j = i + 1; j < size; j++) {
-                if (compareAppointments(appointments[j], appointments[minIdx]) < 0) {
-                    minIdx = j;
-                }
-            }
-            swap(i, minIdx);
-        }
-        sortByProviderAfterDate();
-    }
-
-    private void sortByProviderAfterDate() {
-        for (int i = 0; i < size - 1; i++) {
-            if (appointments[i].getDate().equals(appointments[i + 1].getDate()) &&
-                    appointments[i].getTimeslot().equals(appointments[i + 1].getTimeslot())) {
-                int j = i + 1;
-                while (j < size && appointments[j].getDate().equals(appointments[i].getDate()) &&
-                        appointments[j].getTimeslot().equals(appointments[i].getTimeslot())) {
-                    j++;
-                }
-                sortSubArrayByProvider(i, j - 1);
-                i = j - 1;
-            }
-        }
-    }
-
-    private int compareAppointments(Appointment a1, Appointment a2) {
-        int dateComparison = a1.getDate().compareTo(a2.getDate());
-        if (dateComparison != 0) return dateComparison;
-        return a1.getTimeslot().compareTo(a2.getTimeslot());
-    }
-
-    private void sortSubArrayByDate(int start, int end) {
-        for (int i = start; i < end; i++) {
-            int minIdx = i;
-            for (int j = i + 1; j <= end; j++) {
-                if (appointments[j].compareTo(appointments[minIdx]) < 0) {
-                    minIdx = j;
-                }
-            }
-            swap(i, minIdx);
+        long key = keyOf(appointment, false);
+        if (key == AppointmentKey.NONE) {
+            return;
         }
-    }
-
-    private void sortSubArrayByProvider(int start, int end) {
-        for (int i = start; i < end; i++) {
-            int minIdx = i;
-            for (int j = i + 1; j <= end; j++) {
-                if (appointments[j].getProvider().getLastName().compareTo(appointments[minIdx].getProvider().getLastName()) < 0) {
-                    minIdx = j;
-                }
+        int position = index.get(key, -1);
+        if (position != -1) {
+            index.remove(key);
+            occupancy.release(AppointmentKey.epochDay(key), appointment.getTimeslot(), appointment.getProvider());
+            byAppointment.remove(appointment);
+            byPatient.remove(appointment);
+            byLocation.remove(appointment);
+            ledger.refund(AppointmentKey.patient(key), appointment.getPatient(), chargeOf(appointment));
+            Appointment last = appointments[--size];
+            appointments[size] = null;
+            if (position != size) {
+                appointments[position] = last;
+                bookingOrder[position] = bookingOrder[size];
+                index.put(keyOf(last, false), position);
             }
-            swap(i, minIdx);
         }
     }
 
     public void printByPatient() {
-        if (size == 0) {
-            System.out.println("The schedule calendar is empty.");
-            return;
-        }
-        System.out.println("\n** Appointments ordered by patient/date/time **");
-        sortByPatient();
-        printAppointments();
-        System.out.println("** end of list **");
+        printAppointments(report(), ListOrder.BY_PATIENT, byPatient, size);
     }
 
     public void printByLocation() {
-        if (size == 0) {
-            System.out.println("The schedule calendar is empty.");
-            return;
-        }
-        System.out.println("\n** Appointments ordered by county/date/time **");
-        sortByLocation();
-        printAppointments();
-        System.out.println("** end of list **");
+        printAppointments(report(), ListOrder.BY_LOCATION, byLocation, size);
     }
 
     public void printByAppointment() {
-        if (size == 0) {
-            System.out.println("The schedule calendar is empty.");
-            return;
-        }
-        System.out.println("\n** Appointments ordered by date/time/provider **");
-        sortByAppointment();
-        printAppointments();
-        System.out.println("** end of list **");
+        printAppointments(report(), ListOrder.BY_APPOINTMENT, byAppointment, size);
     }
 
-    private void printAppointments() {
-        for (int i = 0; i < size; i++) {
-            System.out.println(appointments[i].toString());
+    /**
+     * Copies the appointments in one of the print orders.
+     * @param order The order, which selects the sorted view to copy.
+     * @return a new array of every appointment in the list, in that order.
+     */
+    public Appointment[] toArray(ListOrder order) {
+        OrderedSet<Appointment> view = order == ListOrder.BY_PATIENT ? byPatient
+                : order == ListOrder.BY_LOCATION ? byLocation : byAppointment;
+        Appointment[] rows = new Appointment[size];
+        int i = 0;
+        for (Appointment appointment : view) {
+            rows[i++] = appointment;
         }
+        return rows;
     }
 
     /**
-     * Compares two appointments by patient name, then by date and time.
-     * @param a1 The first appointment to compare.
-     * @param a2 The second appointment to compare.
-     * @return A negative integer, zero, or a positive integer as the first appointment
-     *         is less than, equal to, or greater than the second.
+     * Prints a titled listing of appointments that are already in order through a report writer,
+     * or a note that the calendar is empty.
+     * @param report The writer to print to.
+     * @param order The order of the rows, which gives the title.
+     * @param rows The appointments, in order.
+     * @param size The number of appointments.
      */
-    private int compareByPatient(Appointment a1, Appointment a2) {
-        int lastNameComparison = a1.getPatient().getLastName().compareTo(a2.getPatient().getLastName());
-        if (lastNameComparison != 0) {
-            return lastNameComparison;
+    static void printAppointments(ReportWriter report, ListOrder order, Iterable<Appointment> rows, int size) {
+        if (size == 0) {
+            report.append("The schedule calendar is empty.").newLine().flush();
+            return;
         }
-        int firstNameComparison = a1.getPatient().getFirstName().compareTo(a2.getPatient().getFirstName());
-        if (firstNameComparison != 0) {
-            return firstNameComparison;
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        report.newLine().append(order.getTitle()).newLine();
+        for (Appointment appointment : rows) {
+            report.append(appointment).newLine();
         }
-        return a1.compareTo(a2);
+        report.append("** end of list **").newLine();
+        report.flush();
+        commit(event, order.getReportName(), size);
     }
 
     /**
-     * Compares two appointments by county, then by date and time.
-     * @param a1 The first appointment to compare.
-     * @param a2 The second appointment to compare.
-     * @return A negative integer, zero, or a positive integer as the first appointment
-     *         is less than, equal to, or greater than the second.
+     * Prints a titled listing of appointments in an array through a report writer.
+     * @param report The writer to print to.
+     * @param order The order of the rows, which gives the title.
+     * @param rows The appointments, in order.
      */
-    private int compareByLocation(Appointment a1, Appointment a2) {
-        Provider provider1 = a1.getProvider();
-        Provider provider2 = a2.getProvider();
-
-        // Compare providers
-        if (provider1 == null && provider2 == null) return 0;
-        if (provider1 == null) return -1;
-        if (provider2 == null) return 1;
-
-        // Compare counties
-        String county1 = provider1.getLocation() != null ? provider1.getLocation().getCounty() : null;
-        String county2 = provider2.getLocation() != null ? provider2.getLocation().getCounty() : null;
-
-        if (county1 == null && county2 == null) return 0;
-        if (county1 == null) return -1;
-        if (county2 == null) return 1;
-
-        int countyComparison = county1.compareTo(county2);
-        return countyComparison != 0 ? countyComparison : a1.compareTo(a2);
+    static void printAppointments(ReportWriter report, ListOrder order, Appointment[] rows) {
+        printAppointments(report, order, Arrays.asList(rows), rows.length);
     }
 
     /**
-     * Compares two appointments by date, time, and provider name.
-     * @param a1 The first appointment to compare.
-     * @param a2 The second appointment to compare.
-     * @return A negative integer, zero, or a positive integer as the first appointment
-     *         is less than, equal to, or greater than the second.
+     * Commits a report event if Flight Recorder is recording it.
      */
-    private int compareByAppointment(Appointment a1, Appointment a2) {
-        int dateComparison = a1.getDate().compareTo(a2.getDate());
-        if (dateComparison != 0) {
-            return dateComparison;
-        }
-        int timeComparison = a1.getTimeslot().compareTo(a2.getTimeslot());
-        if (timeComparison != 0) {
-            return timeComparison;
+    private static void commit(ReportEvent event, String name, int size) {
+        if (event.shouldCommit()) {
+            event.report = name;
+            event.listSize = size;
+            event.commit();
         }
-        return a1.getProvider().getLastName().compareTo(a2.getProvider().getLastName());
     }
 
     /**
      * Prints billing statements for all patients.
      */
     public void printBillingStatements() {
+        printBillingStatements(report(), new List[] {this});
+
+        // Clear the appointment list
+        clear();
+    }
+
+    /**
+     * Prints one billing statement per patient for the appointments in several lists,
+     * such as the shards of a scheduling core, without changing the lists.
+     * The lists' ledgers are merged in patient order, and a patient with appointments in
+     * more than one list gets one statement with the balances added up.
+     * @param report The writer to print to.
+     * @param lists The lists to bill.
+     */
+    static void printBillingStatements(ReportWriter report, List[] lists) {
+        int size = 0;
+        PriorityQueue<LedgerCursor> cursors = new PriorityQueue<>(Math.max(1, lists.length));
+        for (List list : lists) {
+            size += list.size;
+            LedgerCursor cursor = new LedgerCursor(list);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
         if (size == 0) {
-            System.out.println("No appointments to generate billing statements.");
+            report.append("No appointments to generate billing statements.").newLine().flush();
             return;
         }
 
-        System.out.println("** Billing statement ordered by patient **");
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        report.append("** Billing statement ordered by patient **").newLine();
 
-        // Sort appointments by patient
-        sortByPatient();
-
-        Profile currentPatient = null;
-        double totalCharge = 0;
+        // Each ledger already holds its patients' balances, in patient order
         int count = 1;
-
-        for (int i = 0; i < size; i++) {
-            Appointment appointment = appointments[i];
-            Profile patientProfile = appointment.getPatient();
-
-            // If we've moved to a new patient, print the previous patient's statement
-            if (currentPatient != null && !currentPatient.equals(patientProfile)) {
-                printPatientStatement(currentPatient, totalCharge, count);
-                totalCharge = 0;
-                count++;
+        while (!cursors.isEmpty()) {
+            LedgerCursor cursor = cursors.poll();
+            Profile patient = cursor.patient;
+            long balance = 0;
+            while (true) {
+                balance += cursor.getBalance();
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+                if (cursors.isEmpty() || cursors.peek().patient.compareTo(patient) != 0) {
+                    break;
+                }
+                cursor = cursors.poll();
             }
+            printPatientStatement(report, patient, balance, count++);
+        }
 
-            // Update current patient and add charge
-            currentPatient = patientProfile;
-            totalCharge += appointment.getProvider().getSpecialty().getCharge();
+        report.append("** end of list **").newLine();
+        report.flush();
+        commit(event, "billing", size);
+    }
 
-            // If this is the last appointment, print the last patient's statement
-            if (i == size - 1) {
-                printPatientStatement(currentPatient, totalCharge, count);
-            }
+    /**
+     * The next patient of a list's ledger while ledgers are merged.
+     */
+    private static class LedgerCursor implements Comparable<LedgerCursor> {
+        private final List list;
+        private final Iterator<Profile> patients;
+        private Profile patient;
+
+        LedgerCursor(List list) {
+            this.list = list;
+            this.patients = list.ledger.iterator();
         }
 
-        System.out.println("** end of list **");
+        boolean advance() {
+            patient = patients.hasNext() ? patients.next() : null;
+            return patient != null;
+        }
 
-        // Clear the appointment list
-        clearAppointments();
+        long getBalance() {
+            return list.ledger.getBalance(list.patients.find(patient));
+        }
+
+        @Override
+        public int compareTo(LedgerCursor other) {
+            return patient.compareTo(other.patient);
+        }
     }
 
     /**
      * Helper method to print an individual patient's billing statement in the desired format.
      */
-    private void printPatientStatement(Profile patient, double totalCharge, int count) {
-        // Format the total charge with commas
-        String formattedCharge = String.format("$%,.2f", totalCharge);
-
-        // Print the statement in the desired format
-        System.out.printf("(%d) %s %s %s [amount due: %s]\n",
-                count,
-                patient.getFirstName(),
-                patient.getLastName(),
-                patient.getDob(),
-                formattedCharge);
+    private static void printPatientStatement(ReportWriter report, Profile patient, long totalCharge, int count) {
+        // (count) fname lname dob [amount due: $1,234.00]
+        report.append('(').append(count).append(") ").append(patient);
+        report.append(" [amount due: ").appendDollars(totalCharge).append("]\n");
     }
 
     /**
-     * Helper Method to clear all appointments from the list.
+     * Removes all appointments from the list.
      */
-    private void clearAppointments() {
+    public void clear() {
         for (int i = 0; i < size; i++) {
             appointments[i] = null;
         }
         size = 0;
+        index.clear();
+        occupancy.clear();
+        byAppointment.clear();
+        byPatient.clear();
+        byLocation.clear();
+        ledger.clear();
+    }
+
+    /**
+     * Sends the output of the print commands to a stream instead of standard output.
+     * @param output The stream to write to.
+     */
+    public void setOutput(OutputStream output) {
+        this.output = output;
+        this.report = null;
+    }
+
+    /**
+     * Gets the writer for the print commands, creating it on first use
+     * so that lists that are never printed do not hold a report buffer.
+     */
+    private ReportWriter report() {
+        if (report == null) {
+            report = new ReportWriter(output);
+        }
+        return report;
+    }
+
+    /**
+     * Gets the charge of an appointment, set by the specialty of its provider.
+     */
+    private static int chargeOf(Appointment appointment) {
+        return appointment.getProvider().getSpecialty().getCharge();
     }
 
 }
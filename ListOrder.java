@@ -0,0 +1,115 @@
+import java.util.Comparator;
+
+/**
+ * The orders the appointment listings are printed in, each with its title.
+ * A list keeps one sorted view per order, and listings from several lists are merged
+ * with the same comparison.
+ */
+public enum ListOrder implements Comparator<Appointment> {
+    BY_APPOINTMENT("byAppointment", "** Appointments ordered by date/time/provider **") {
+        /**
+         * Compares two appointments by date, time, provider name and patient.
+         */
+        @Override
+        public int compare(Appointment a1, Appointment a2) {
+            int dateComparison = a1.getDate().compareTo(a2.getDate());
+            if (dateComparison != 0) {
+                return dateComparison;
+            }
+            int timeComparison = a1.getTimeslot().compareTo(a2.getTimeslot());
+            if (timeComparison != 0) {
+                return timeComparison;
+            }
+            int providerComparison = compareProviders(a1, a2);
+            if (providerComparison != 0) {
+                return providerComparison;
+            }
+            return a1.getPatient().compareTo(a2.getPatient());
+        }
+    },
+    BY_PATIENT("byPatient", "** Appointments ordered by patient/date/time **") {
+        /**
+         * Compares two appointments by patient name and date of birth, then by date, time and provider.
+         */
+        @Override
+        public int compare(Appointment a1, Appointment a2) {
+            int patientComparison = a1.getPatient().compareTo(a2.getPatient());
+            if (patientComparison != 0) {
+                return patientComparison;
+            }
+            int appointmentComparison = a1.compareTo(a2);
+            if (appointmentComparison != 0) {
+                return appointmentComparison;
+            }
+            return compareProviders(a1, a2);
+        }
+    },
+    BY_LOCATION("byLocation", "** Appointments ordered by county/date/time **") {
+        /**
+         * Compares two appointments by county, then by date, time, provider and patient.
+         */
+        @Override
+        public int compare(Appointment a1, Appointment a2) {
+            Provider provider1 = a1.getProvider();
+            Provider provider2 = a2.getProvider();
+
+            // Compare providers
+            if (provider1 == null && provider2 == null) return 0;
+            if (provider1 == null) return -1;
+            if (provider2 == null) return 1;
+
+            // Compare counties
+            String county1 = provider1.getLocation() != null ? provider1.getLocation().getCounty() : null;
+            String county2 = provider2.getLocation() != null ? provider2.getLocation().getCounty() : null;
+
+            if (county1 == null && county2 == null) return 0;
+            if (county1 == null) return -1;
+            if (county2 == null) return 1;
+
+            int countyComparison = county1.compareTo(county2);
+            if (countyComparison != 0) {
+                return countyComparison;
+            }
+            int appointmentComparison = a1.compareTo(a2);
+            if (appointmentComparison != 0) {
+                return appointmentComparison;
+            }
+            int providerComparison = compareProviders(a1, a2);
+            if (providerComparison != 0) {
+                return providerComparison;
+            }
+            return a1.getPatient().compareTo(a2.getPatient());
+        }
+    };
+
+    private final String reportName;
+    private final String title;
+
+    ListOrder(String reportName, String title) {
+        this.reportName = reportName;
+        this.title = title;
+    }
+
+    /**
+     * Gets the name of the listing in the Flight Recorder report event.
+     * @return the report name.
+     */
+    public String getReportName() {
+        return reportName;
+    }
+
+    /**
+     * Gets the title line printed before the listing.
+     * @return the title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Compares the providers of two appointments by last name.
+     */
+    private static int compareProviders(Appointment a1, Appointment a2) {
+        return a1.getProvider().getLastName().compareTo(a2.getProvider().getLastName());
+    }
+}
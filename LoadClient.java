@@ -0,0 +1,100 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for the scheduler server.
+ * Opens many connections at once; each sends a stream of random S and C commands for
+ * bookable days, waits for the one-line response to each, and ends with Q.
+ * Usage: LoadClient [port] [connections] [commandsPerConnection]
+ * Without a port, a server with an empty calendar is started in this JVM on a free port.
+ */
+public class LoadClient {
+    private static final String[] PROVIDERS = {"PATEL", "LIM", "ZIMNES", "HARPER", "KAUR", "TAYLOR", "RAMESH", "CERAVOLO"};
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int commands = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        SchedulerServer server = null;
+        if (port == 0) {
+            server = new SchedulerServer(new Scheduler(), 0);
+            port = server.getPort();
+            SchedulerServer accepting = server;
+            Thread acceptor = new Thread(() -> {
+                try {
+                    accepting.serve();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "scheduler-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int today = new BookingCalendar(Clock.systemDefaultZone()).getToday();
+        AtomicLong responses = new AtomicLong();
+        AtomicLong booked = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        int serverPort = port;
+        Thread[] workers = new Thread[clients];
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            workers[c] = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), serverPort)) {
+                    socket.setTcpNoDelay(true);
+                    OutputStream out = socket.getOutputStream();
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), CHARSET));
+                    in.readLine(); // Scheduler is running.
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < commands; i++) {
+                        Date date = Date.ofEpochDay(today + 1 + random.nextInt(150));
+                        while (date.isWeekend()) {
+                            date = Date.ofEpochDay(date.toEpochDay() + 1);
+                        }
+                        String command = (random.nextInt(4) == 0 ? "C," : "S,")
+                                + date.getMonth() + "/" + date.getDay() + "/" + date.getYear() + ","
+                                + (1 + random.nextInt(6)) + ",Client" + client + ",Load,1/1/1990,"
+                                + PROVIDERS[random.nextInt(PROVIDERS.length)] + "\n";
+                        out.write(command.getBytes(CHARSET));
+                        String response = in.readLine();
+                        if (response == null) {
+                            failures.incrementAndGet();
+                            return;
+                        }
+                        responses.incrementAndGet();
+                        if (response.endsWith(" booked.")) {
+                            booked.incrementAndGet();
+                        }
+                    }
+                    out.write("Q\n".getBytes(CHARSET));
+                    if (!"Scheduler is terminated.".equals(in.readLine())) {
+                        failures.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                }
+            });
+            workers[c].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d connections, %,d responses in %.3f seconds (%,.0f commands/sec), %,d booked, %d failed connections%n",
+                clients, responses.get(), seconds, responses.get() / seconds, booked.get(), failures.get());
+        if (server != null) {
+            server.close();
+        }
+    }
+}
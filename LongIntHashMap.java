@@ -0,0 +1,138 @@
+/**
+ * Open-addressing hash map from long keys to int values.
+ * Keys and values live in two primitive arrays, so lookups, inserts and removals
+ * do not allocate. The key 0 is reserved to mark empty slots.
+ */
+public class LongIntHashMap {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructor for the LongIntHashMap class.
+     * Initializes an empty map.
+     */
+    public LongIntHashMap() {
+        keys = new long[16];
+        values = new int[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return the size of the map.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the map contains a key.
+     * @param key The key to look for.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        return keys[slotOf(key)] != EMPTY;
+    }
+
+    /**
+     * Gets the value stored for a key.
+     * @param key The key to look for.
+     * @param missing The value to return when the key is absent.
+     * @return the stored value, or missing if the key is absent.
+     */
+    public int get(long key, int missing) {
+        int slot = slotOf(key);
+        return keys[slot] != EMPTY ? values[slot] : missing;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     * @param key The key, must not be 0.
+     * @param value The value to store.
+     */
+    public void put(long key, int value) {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @return true if the key was present, false otherwise.
+     */
+    public boolean remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            return false;
+        }
+        // shift later entries of the probe chain back so no tombstone is needed
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every key from the map.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EMPTY;
+        }
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts every key.
+     */
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -1,6 +1,7 @@
 public class MedicalRecord {
     private Patient[] patients;
     private int size; // number of patient objects in the array
+    private int[] index; // open-addressing slots keyed by profile, holding position + 1, 0 when empty
 
     /**
      * Constructor for the MedicalRecord class.
@@ -8,6 +9,7 @@ public class MedicalRecord {
     public MedicalRecord() {
         patients = new Patient[4]; // Initial capacity of 4
         size = 0;
+        index = new int[8];
     }
 
     /**
@@ -19,6 +21,13 @@ public class MedicalRecord {
             grow();
         }
         patients[size++] = patient;
+        int slot = slotOf(patient.getProfile());
+        if (index[slot] == 0) { // findPatient keeps returning the first patient added with a profile
+            index[slot] = size;
+        }
+        if (size * 2 > index.length) {
+            rehash();
+        }
     }
 
     /**
@@ -38,11 +47,50 @@ public class MedicalRecord {
      * @return The patient if found, null otherwise.
      */
     public Patient findPatient(Profile profile) {
+        int position = index[slotOf(profile)];
+        return position == 0 ? null : patients[position - 1];
+    }
+
+    /**
+     * Finds the index slot holding a profile, or the empty slot where it would go.
+     */
+    private int slotOf(Profile profile) {
+        int mask = index.length - 1;
+        int hash = profile.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (index[slot] != 0 && !patients[index[slot] - 1].getProfile().equals(profile)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the index and reinserts every patient, keeping the first of any duplicates.
+     */
+    private void rehash() {
+        index = new int[index.length * 2];
         for (int i = 0; i < size; i++) {
-            if (patients[i].getProfile().equals(profile)) {
-                return patients[i];
+            int slot = slotOf(patients[i].getProfile());
+            if (index[slot] == 0) {
+                index[slot] = i + 1;
             }
         }
-        return null;
+    }
+
+    /**
+     * Gets the number of patients in the medical record.
+     * @return the number of patients.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the patient at a position in the medical record.
+     * @param index The position of the patient, from 0 to getSize() - 1.
+     * @return the patient.
+     */
+    public Patient getPatient(int index) {
+        return patients[index];
     }
 }
\ No newline at end of file
@@ -0,0 +1,347 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Appointment store that keeps its rows and their index outside the Java heap.
+ * Every appointment is a fixed-width 12-byte record, laid out like an appointment row of
+ * a Snapshot: [int epoch day][int patient id][byte timeslot][byte provider][short 0].
+ * Records live in chunks of CHUNK_ROWS rows, each a direct ByteBuffer or a region of a
+ * memory-mapped file. The key-to-row index is an OffHeapLongIntMap in direct memory, even
+ * when the rows are mapped, at 24 to 48 bytes per appointment. An appointment therefore
+ * costs the heap nothing beyond its share of the chunk tables; what the heap does hold is
+ * the patient registry, whose canonical profiles grow with the number of distinct patients.
+ * Like List, it supports add, contains and remove, with a removed row filled by the last
+ * one, and iterating over the appointments.
+ */
+public class OffHeapAppointmentStore implements Iterable<Appointment>, Closeable {
+    private static final int RECORD_SIZE = 12;
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS; // 12 MB per chunk
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+    private static final Provider[] PROVIDERS = Provider.values();
+
+    private ByteBuffer[] chunks;
+    private int size;
+    private OffHeapLongIntMap index; // appointment key -> row
+    private final PatientRegistry patients;
+    private final FileChannel file; // backs the chunks, or null for direct memory
+
+    /**
+     * Constructor for an OffHeapAppointmentStore in direct memory.
+     * @param patients The registry that assigns the patient ids stored in the records.
+     */
+    public OffHeapAppointmentStore(PatientRegistry patients) {
+        this.patients = patients;
+        this.file = null;
+        chunks = new ByteBuffer[4];
+        size = 0;
+        index = new OffHeapLongIntMap();
+    }
+
+    /**
+     * Constructor for an OffHeapAppointmentStore backed by a memory-mapped file.
+     * The file is working memory that the operating system can page out, not a saved copy
+     * of the store: its contents are overwritten and only valid while the store is open.
+     * @param patients The registry that assigns the patient ids stored in the records.
+     * @param path The file to map, created if it does not exist.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OffHeapAppointmentStore(PatientRegistry patients, Path path) throws IOException {
+        this.patients = patients;
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        chunks = new ByteBuffer[4];
+        size = 0;
+        index = new OffHeapLongIntMap();
+    }
+
+    /**
+     * Gets the number of appointments in the store.
+     * @return the number of records.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Adds an appointment.
+     * An appointment that is already in the store, or has an invalid date, is not added.
+     * @param appointment The appointment to add.
+     * @return true if a record was added, false otherwise.
+     */
+    public boolean add(Appointment appointment) {
+        if (!appointment.getDate().isValid()) {
+            return false;
+        }
+        if (index.containsKey(keyOf(appointment))) {
+            return false;
+        }
+        // register the patient only once the appointment is known to be new
+        int patientId = patients.intern(appointment.getPatient());
+        long key = AppointmentKey.of(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                appointment.getProvider(), patientId);
+        if ((size & CHUNK_MASK) == 0) {
+            addChunk();
+        }
+        ByteBuffer chunk = chunks[size >>> CHUNK_BITS];
+        int offset = (size & CHUNK_MASK) * RECORD_SIZE;
+        chunk.putInt(offset, appointment.getDate().toEpochDay());
+        chunk.putInt(offset + 4, patientId);
+        chunk.put(offset + 8, (byte) appointment.getTimeslot().ordinal());
+        chunk.put(offset + 9, (byte) appointment.getProvider().ordinal());
+        chunk.putShort(offset + 10, (short) 0);
+        index.put(key, size++);
+        return true;
+    }
+
+    /**
+     * Checks if the store contains an appointment.
+     * @param appointment The appointment to look for.
+     * @return true if the appointment is in the store, false otherwise.
+     */
+    public boolean contains(Appointment appointment) {
+        long key = keyOf(appointment);
+        return key != AppointmentKey.NONE && index.containsKey(key);
+    }
+
+    /**
+     * Removes an appointment; the last record is copied into the freed one.
+     * @param appointment The appointment to remove.
+     * @return true if the appointment was in the store, false otherwise.
+     */
+    public boolean remove(Appointment appointment) {
+        long key = keyOf(appointment);
+        int row = key == AppointmentKey.NONE ? -1 : index.get(key, -1);
+        if (row == -1) {
+            return false;
+        }
+        index.remove(key);
+        int last = --size;
+        if (row != last) {
+            ByteBuffer from = chunks[last >>> CHUNK_BITS];
+            ByteBuffer to = chunks[row >>> CHUNK_BITS];
+            int fromOffset = (last & CHUNK_MASK) * RECORD_SIZE;
+            int toOffset = (row & CHUNK_MASK) * RECORD_SIZE;
+            to.putLong(toOffset, from.getLong(fromOffset));
+            to.putInt(toOffset + 8, from.getInt(fromOffset + 8));
+            index.put(keyOf(row), row);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every appointment, keeping the chunks for reuse. Patient ids stay registered.
+     */
+    public void clear() {
+        size = 0;
+        index.clear();
+    }
+
+    /**
+     * Builds the appointment stored in a record.
+     * @param row The row, from 0 to getSize() - 1.
+     * @return a new Appointment with the record's values.
+     */
+    public Appointment getAppointment(int row) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_BITS];
+        int offset = (row & CHUNK_MASK) * RECORD_SIZE;
+        return new Appointment(Date.ofEpochDay(chunk.getInt(offset)), TIMESLOTS[chunk.get(offset + 8)],
+                patients.getProfile(chunk.getInt(offset + 4)), PROVIDERS[chunk.get(offset + 9)]);
+    }
+
+    /**
+     * Iterates over the appointments in row order, building each one as it is reached.
+     * The store must not be changed while iterating.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<Appointment> iterator() {
+        return new Iterator<Appointment>() {
+            private int row = 0;
+
+            @Override
+            public boolean hasNext() {
+                return row < size;
+            }
+
+            @Override
+            public Appointment next() {
+                if (row >= size) {
+                    throw new NoSuchElementException();
+                }
+                return getAppointment(row++);
+            }
+        };
+    }
+
+    /**
+     * Closes the backing file, if there is one. The store must not be used afterwards.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        chunks = new ByteBuffer[0];
+        size = 0;
+        index.release();
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Allocates the chunk for the next CHUNK_ROWS rows, mapping the next region of the file
+     * if the store is file-backed.
+     */
+    private void addChunk() {
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            ByteBuffer[] newChunks = new ByteBuffer[chunks.length * 2];
+            System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+            chunks = newChunks;
+        }
+        if (chunks[chunk] != null) {
+            return; // kept from before a clear
+        }
+        long bytes = (long) CHUNK_ROWS * RECORD_SIZE;
+        if (file == null) {
+            chunks[chunk] = ByteBuffer.allocateDirect((int) bytes);
+            return;
+        }
+        try {
+            chunks[chunk] = file.map(FileChannel.MapMode.READ_WRITE, chunk * bytes, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the packed key of an appointment without registering its patient.
+     */
+    private long keyOf(Appointment appointment) {
+        if (!appointment.getDate().isValid()) {
+            return AppointmentKey.NONE;
+        }
+        int patientId = patients.find(appointment.getPatient());
+        if (patientId == 0) {
+            return AppointmentKey.NONE;
+        }
+        return AppointmentKey.of(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                appointment.getProvider(), patientId);
+    }
+
+    private long keyOf(int row) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_BITS];
+        int offset = (row & CHUNK_MASK) * RECORD_SIZE;
+        return AppointmentKey.of(chunk.getInt(offset), TIMESLOTS[chunk.get(offset + 8)],
+                PROVIDERS[chunk.get(offset + 9)], chunk.getInt(offset + 4));
+    }
+
+    // Testbed main
+
+    /**
+     * Main method for testing the OffHeapAppointmentStore class.
+     * Checks add, contains, remove and iteration in direct memory and in a mapped file,
+     * then compares the heap used and the time of a full collection with a List holding
+     * the same appointments.
+     * Usage: OffHeapAppointmentStore [appointments]
+     * @param args Command line arguments.
+     * @throws IOException if the temporary file cannot be mapped.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Profile[] people = new Profile[Math.max(1, count / 8)];
+        for (int i = 0; i < people.length; i++) {
+            people[i] = new Profile("First" + i, "Last" + (i % 1000), Date.ofEpochDay(i % 15000));
+        }
+        int today = Date.todayEpochDay();
+        Path path = Files.createTempFile("appointments", ".bin");
+        try (OffHeapAppointmentStore direct = new OffHeapAppointmentStore(new PatientRegistry());
+             OffHeapAppointmentStore mapped = new OffHeapAppointmentStore(new PatientRegistry(), path)) {
+            for (OffHeapAppointmentStore store : new OffHeapAppointmentStore[] {direct, mapped}) {
+                for (int i = 0; i < 3 * CHUNK_ROWS / 2; i++) {
+                    store.add(appointment(i, today, people));
+                }
+            }
+            Appointment first = appointment(0, today, people);
+            Appointment last = appointment(3 * CHUNK_ROWS / 2 - 1, today, people);
+
+            // Test case 1
+            System.out.println("Test case 1: " + (direct.contains(first) && mapped.contains(last)
+                    && !direct.add(first))); // Expected: true
+
+            // Test case 2
+            System.out.println("Test case 2: " + (direct.remove(first) && !direct.contains(first)
+                    && direct.contains(last) && direct.getAppointment(0).equals(last))); // Expected: true
+
+            // Test case 3
+            int seen = 0;
+            for (Appointment appointment : mapped) {
+                seen += appointment.getPatient() == null ? 0 : 1;
+            }
+            System.out.println("Test case 3: " + (seen == mapped.getSize())); // Expected: true
+
+            // Test case 4
+            boolean found = true;
+            for (int i = 1; i < 3 * CHUNK_ROWS / 2; i++) {
+                if (i % 3 == 0) {
+                    direct.remove(appointment(i, today, people));
+                }
+            }
+            for (int i = 1; i < 3 * CHUNK_ROWS / 2; i++) {
+                found &= direct.contains(appointment(i, today, people)) == (i % 3 != 0);
+            }
+            System.out.println("Test case 4: " + found); // Expected: true
+        } finally {
+            Files.deleteIfExists(path);
+        }
+
+        long before = usedHeap();
+        List list = new List(new PatientRegistry());
+        for (int i = 0; i < count; i++) {
+            list.add(appointment(i, today, people));
+        }
+        long listBytes = usedHeap() - before;
+        long listGcNanos = timeCollection();
+        list = null;
+        before = usedHeap();
+        try (OffHeapAppointmentStore store = new OffHeapAppointmentStore(new PatientRegistry())) {
+            for (int i = 0; i < count; i++) {
+                store.add(appointment(i, today, people));
+            }
+            long storeBytes = usedHeap() - before;
+            long storeGcNanos = timeCollection();
+            System.out.printf("%,d appointments: List %.0f heap bytes each, full GC %.1f ms;"
+                            + " off-heap store %.0f heap bytes each, full GC %.1f ms%n",
+                    count, (double) listBytes / count, listGcNanos / 1e6,
+                    (double) storeBytes / count, storeGcNanos / 1e6);
+        }
+    }
+
+    private static Appointment appointment(int i, int today, Profile[] people) {
+        return new Appointment(Date.ofEpochDay(today + i / 48), TIMESLOTS[i % 6], people[i % people.length],
+                PROVIDERS[(i / 6) % 8]);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long timeCollection() {
+        long start = System.nanoTime();
+        System.gc();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,183 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Open-addressing hash map from long keys to int values, kept outside the Java heap.
+ * It probes and removes like LongIntHashMap, but each slot is a 12-byte [long key][int value]
+ * entry in a direct ByteBuffer, in chunks of CHUNK_SLOTS slots, so however many keys it
+ * holds the heap only has the chunk table and the collector has nothing to scan.
+ * The table doubles when it is half full, so it takes 24 to 48 bytes of direct memory per key.
+ * The key 0 is reserved to mark empty slots.
+ */
+public class OffHeapLongIntMap {
+    private static final long EMPTY = 0L;
+    private static final int SLOT_SIZE = 12;
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_BITS; // 12 MB per chunk
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private ByteBuffer[] chunks;
+    private int capacity; // slots, a power of two
+    private int size;
+
+    /**
+     * Constructor for the OffHeapLongIntMap class.
+     * Initializes an empty map.
+     */
+    public OffHeapLongIntMap() {
+        allocate(16);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return the size of the map.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the map contains a key.
+     * @param key The key to look for.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        return keyAt(slotOf(key)) != EMPTY;
+    }
+
+    /**
+     * Gets the value stored for a key.
+     * @param key The key to look for.
+     * @param missing The value to return when the key is absent.
+     * @return the stored value, or missing if the key is absent.
+     */
+    public int get(long key, int missing) {
+        int slot = slotOf(key);
+        return keyAt(slot) != EMPTY ? valueAt(slot) : missing;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     * @param key The key, must not be 0.
+     * @param value The value to store.
+     */
+    public void put(long key, int value) {
+        int slot = slotOf(key);
+        if (keyAt(slot) == EMPTY) {
+            size++;
+        }
+        set(slot, key, value);
+        if (size * 2L > capacity && capacity < MAX_CAPACITY) {
+            rehash();
+        }
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @return true if the key was present, false otherwise.
+     */
+    public boolean remove(long key) {
+        int mask = capacity - 1;
+        int slot = slotOf(key);
+        if (keyAt(slot) == EMPTY) {
+            return false;
+        }
+        // shift later entries of the probe chain back so no tombstone is needed
+        int next = (slot + 1) & mask;
+        long nextKey;
+        while ((nextKey = keyAt(next)) != EMPTY) {
+            int home = mix(nextKey) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                set(slot, nextKey, valueAt(next));
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        set(slot, EMPTY, 0);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every key from the map, keeping its memory for reuse.
+     */
+    public void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            set(slot, EMPTY, 0);
+        }
+        size = 0;
+    }
+
+    /**
+     * Drops the table so its direct memory can be freed without waiting for the map itself
+     * to become unreachable. The map must not be used afterwards.
+     */
+    public void release() {
+        chunks = new ByteBuffer[0];
+        capacity = 0;
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private int slotOf(long key) {
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        long slotKey;
+        while ((slotKey = keyAt(slot)) != EMPTY && slotKey != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts every key.
+     */
+    private void rehash() {
+        ByteBuffer[] oldChunks = chunks;
+        int oldCapacity = capacity;
+        allocate(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            ByteBuffer chunk = oldChunks[i >>> CHUNK_BITS];
+            int offset = (i & CHUNK_MASK) * SLOT_SIZE;
+            long key = chunk.getLong(offset);
+            if (key != EMPTY) {
+                set(slotOf(key), key, chunk.getInt(offset + 8));
+            }
+        }
+    }
+
+    /**
+     * Replaces the table with an empty one of the given number of slots.
+     */
+    private void allocate(int slots) {
+        capacity = slots;
+        chunks = new ByteBuffer[(slots + CHUNK_SLOTS - 1) >>> CHUNK_BITS];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(Math.min(slots, CHUNK_SLOTS) * SLOT_SIZE);
+        }
+    }
+
+    private long keyAt(int slot) {
+        return chunks[slot >>> CHUNK_BITS].getLong((slot & CHUNK_MASK) * SLOT_SIZE);
+    }
+
+    private int valueAt(int slot) {
+        return chunks[slot >>> CHUNK_BITS].getInt((slot & CHUNK_MASK) * SLOT_SIZE + 8);
+    }
+
+    private void set(int slot, long key, int value) {
+        ByteBuffer chunk = chunks[slot >>> CHUNK_BITS];
+        int offset = (slot & CHUNK_MASK) * SLOT_SIZE;
+        chunk.putLong(offset, key);
+        chunk.putInt(offset + 8, value);
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of elements kept in sorted order by an AVL tree.
+ * Adding and removing are O(log n) and visiting the elements in order is O(n),
+ * so the order never has to be rebuilt by sorting.
+ * The comparator must only return 0 for elements that are equal.
+ * @param <T> The type of the elements.
+ */
+public class OrderedSet<T> implements Iterable<T> {
+    private Node<T> root;
+    private int size;
+    private final Comparator<? super T> comparator;
+
+    /**
+     * A node of the tree.
+     */
+    private static class Node<T> {
+        private T value;
+        private Node<T> left;
+        private Node<T> right;
+        private int height;
+
+        Node(T value) {
+            this.value = value;
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Constructor for the OrderedSet class.
+     * @param comparator The ordering of the elements.
+     */
+    public OrderedSet(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Gets the number of elements in the set.
+     * @return the size of the set.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the set contains an element.
+     * @param value The element to look for.
+     * @return true if the element is in the set, false otherwise.
+     */
+    public boolean contains(T value) {
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(value, node.value);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds an element to the set.
+     * @param value The element to add.
+     * @return true if the element was added, false if an equal element was already present.
+     */
+    public boolean add(T value) {
+        int oldSize = size;
+        root = insert(root, value);
+        return size != oldSize;
+    }
+
+    /**
+     * Removes an element from the set.
+     * @param value The element to remove.
+     * @return true if the element was removed, false if it was not present.
+     */
+    public boolean remove(T value) {
+        int oldSize = size;
+        root = delete(root, value);
+        return size != oldSize;
+    }
+
+    /**
+     * Removes every element from the set.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns an iterator over the elements in sorted order.
+     * The set must not be modified while the iterator is in use.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new InOrderIterator();
+    }
+
+    /**
+     * Walks the tree in order with an explicit stack as deep as the tree.
+     */
+    private class InOrderIterator implements Iterator<T> {
+        private final Node<T>[] stack;
+        private int top;
+
+        @SuppressWarnings("unchecked")
+        InOrderIterator() {
+            stack = (Node<T>[]) new Node<?>[height(root) + 1];
+            top = 0;
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public T next() {
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack[--top];
+            pushLeft(node.right);
+            return node.value;
+        }
+
+        private void pushLeft(Node<T> node) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+    }
+
+    private Node<T> insert(Node<T> node, T value) {
+        if (node == null) {
+            size++;
+            return new Node<>(value);
+        }
+        int comparison = comparator.compare(value, node.value);
+        if (comparison < 0) {
+            node.left = insert(node.left, value);
+        } else if (comparison > 0) {
+            node.right = insert(node.right, value);
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = comparator.compare(value, node.value);
+        if (comparison < 0) {
+            node.left = delete(node.left, value);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, value);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // replace with the smallest element of the right subtree
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.value = successor.value;
+            node.right = deleteMin(node.right);
+        }
+        return balance(node);
+    }
+
+    private Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+}
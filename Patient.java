@@ -1,6 +1,12 @@
 public class Patient implements Comparable<Patient> {
+    private static final int FIRST_CHUNK_SIZE = 4;
+    private static final int MAX_CHUNK_SIZE = 256;
+
     private Profile profile;
-    private Visit visits; // a linked list of visits (completed appt.)
+    private Visit visits; // a linked list of chunks of visits (completed appt.)
+    private Visit lastVisits; // the last chunk, where new visits go
+    private int visitCount;
+    private int totalCharge; // charge for every visit so far
 
     /**
      * Constructor for the Patient class.
@@ -9,23 +15,27 @@ public class Patient implements Comparable<Patient> {
     public Patient(Profile profile) {
         this.profile = profile;
         this.visits = null;
+        this.lastVisits = null;
+        this.visitCount = 0;
+        this.totalCharge = 0;
     }
 
     /**
      * Adds a completed appointment to the patient's visit history.
+     * When the last chunk is full a new one twice its size is linked on, up to MAX_CHUNK_SIZE.
      * @param appointment The completed appointment to add.
      */
     public void addVisit(Appointment appointment) {
-        Visit newVisit = new Visit(appointment);
-        if (visits == null) {
-            visits = newVisit;
-        } else {
-            Visit current = visits;
-            while (current.getNext() != null) {
-                current = current.getNext();
-            }
-            current.setNext(newVisit);
+        if (lastVisits == null) {
+            visits = lastVisits = new Visit(FIRST_CHUNK_SIZE);
+        } else if (lastVisits.isFull()) {
+            Visit chunk = new Visit(Math.min(lastVisits.getSize() * 2, MAX_CHUNK_SIZE));
+            lastVisits.setNext(chunk);
+            lastVisits = chunk;
         }
+        lastVisits.add(appointment);
+        visitCount++;
+        totalCharge += appointment.getProvider().getSpecialty().getCharge();
     }
 
     /**
@@ -33,15 +43,17 @@ public class Patient implements Comparable<Patient> {
      * @return The total charge for all visits.
      */
     public int charge() {
-        int totalCharge = 0;
-        Visit current = visits;
-        while (current != null) {
-            totalCharge += current.getAppointment().getProvider().getSpecialty().getCharge();
-            current = current.getNext();
-        }
         return totalCharge;
     }
 
+    /**
+     * Gets the number of visits in the patient's history.
+     * @return the number of visits.
+     */
+    public int getVisitCount() {
+        return visitCount;
+    }
+
     /**
      * Getter for the patient's profile.
      * @return The patient's profile.
@@ -50,6 +62,14 @@ public class Patient implements Comparable<Patient> {
         return profile;
     }
 
+    /**
+     * Getter for the patient's visit history.
+     * @return The first chunk of visits in the linked list, or null if there are none.
+     */
+    public Visit getVisits() {
+        return visits;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -62,6 +82,11 @@ public class Patient implements Comparable<Patient> {
         return profile.equals(patient.profile);
     }
 
+    @Override
+    public int hashCode() {
+        return profile.hashCode();
+    }
+
     @Override
     public int compareTo(Patient other) {
         return this.profile.compareTo(other.profile);
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns patient profiles into small integer ids.
+ * Two equal profiles always map to the same id, so an appointment key can carry
+ * the patient as an int instead of a reference to the profile.
+ * Ids start at 1 and are never reused.
+ * Each id keeps one canonical profile whose names come from a string table, so a name
+ * shared by many patients is stored once, and every appointment for a patient can share
+ * the canonical profile instead of holding its own copy of the names and date of birth.
+ * Canonical profiles are equal exactly when they are the same object.
+ * Only interning registers a patient; lookup finds a patient's canonical profile without
+ * registering, so a command that fails leaves nothing behind. Ids and profiles are never
+ * removed, so the registry grows with the number of patients ever booked.
+ * Looking a patient up never locks: ids are held in a ConcurrentHashMap and profiles in an
+ * array that is only ever appended to, so the stripes of a SchedulingCore can share one
+ * registry without queueing on it. Only registering a new patient takes the registry's lock.
+ */
+public class PatientRegistry {
+    private final ConcurrentHashMap<Profile, Integer> ids; // canonical profile -> id
+    private volatile Profile[] profiles; // canonical profiles, indexed by id; grown under the lock
+    private final StringTable names; // first and last names of every profile, used under the lock
+    private volatile int size;
+
+    /**
+     * Constructor for the PatientRegistry class.
+     * Initializes an empty registry.
+     */
+    public PatientRegistry() {
+        ids = new ConcurrentHashMap<>();
+        profiles = new Profile[16];
+        names = new StringTable();
+        size = 0;
+    }
+
+    /**
+     * Gets the id of a profile, assigning a new one if the profile has not been seen before.
+     * @param profile The profile to intern.
+     * @return the id of the profile.
+     */
+    public int intern(Profile profile) {
+        Integer id = ids.get(profile);
+        return id != null ? id : register(profile);
+    }
+
+    /**
+     * Gets the canonical profile equal to a profile, interning it if it has not been seen before.
+     * @param profile The profile to intern.
+     * @return the canonical profile, which may be the given one.
+     */
+    public Profile canonical(Profile profile) {
+        int id = intern(profile);
+        return profiles[id]; // read after the id, so the array holds it
+    }
+
+    /**
+     * Gets the canonical profile equal to a profile without registering it.
+     * @param profile The profile to look up.
+     * @return the canonical profile, or the given one if the patient has not been interned.
+     */
+    public Profile lookup(Profile profile) {
+        Integer id = ids.get(profile);
+        return id != null ? profiles[id] : profile;
+    }
+
+    /**
+     * Gets the id of a profile without assigning a new one.
+     * @param profile The profile to look up.
+     * @return the id of the profile, or 0 if the profile has never been interned.
+     */
+    public int find(Profile profile) {
+        Integer id = ids.get(profile);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Gets the canonical profile registered under an id.
+     * @param id The id of the profile.
+     * @return the profile, or null if the id is unknown.
+     */
+    public Profile getProfile(int id) {
+        if (id < 1 || id > size) {
+            return null;
+        }
+        return profiles[id];
+    }
+
+    /**
+     * Gets the number of distinct profiles interned so far.
+     * @return the number of profiles.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Assigns the next id to a profile, unless another thread registered it first.
+     * The profile is stored before its id is published, so whoever finds the id can read it.
+     */
+    private synchronized int register(Profile profile) {
+        Integer existing = ids.get(profile);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size + 1;
+        if (id == profiles.length) {
+            profiles = Arrays.copyOf(profiles, profiles.length * 2);
+        }
+        Profile canonical = canonicalOf(profile);
+        profiles[id] = canonical;
+        size = id;
+        ids.put(canonical, id);
+        return id;
+    }
+
+    /**
+     * Builds the canonical profile for a new id from the names in the string table.
+     * A profile whose names are already the table's strings is used as it is.
+     */
+    private Profile canonicalOf(Profile profile) {
+        String firstName = names.get(names.intern(profile.getFirstName()));
+        String lastName = names.get(names.intern(profile.getLastName()));
+        if (firstName == profile.getFirstName() && lastName == profile.getLastName()) {
+            return profile;
+        }
+        return new Profile(firstName, lastName, profile.getDob());
+    }
+}
@@ -1,9 +1,10 @@
 import java.util.Calendar;
 
 public class Profile implements Comparable<Profile> {
-    private String fname;
-    private String lname;
-    private Date dob;
+    private final String fname;
+    private final String lname;
+    private final Date dob;
+    private int hash; // cached hashCode, 0 until first computed
 
     /**
      * Constructor for the Profile class.
@@ -46,11 +47,22 @@ public class Profile implements Comparable<Profile> {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Profile profile = (Profile) obj;
+        if (hashCode() != profile.hashCode()) return false;
         return fname.equals(profile.fname) &&
                 lname.equals(profile.lname) &&
                 dob.equals(profile.dob);
     }
 
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = (fname.hashCode() * 31 + lname.hashCode()) * 31 + dob.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
     @Override
     public int compareTo(Profile other) {
         // Compare last names
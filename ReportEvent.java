@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for printing one of the appointment listings or the billing statements.
+ * The duration covers walking the list and writing the report.
+ */
+@Name("scheduler.Report")
+@Label("Report")
+@Category("Scheduler")
+@Description("A printed appointment listing or set of billing statements")
+@StackTrace(false)
+class ReportEvent extends Event {
+    @Label("Report")
+    String report;
+
+    @Label("List Size")
+    @Description("Appointments in the list that was printed")
+    int listSize;
+}
@@ -0,0 +1,267 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Builds report lines in one reusable byte buffer and writes them out in large blocks.
+ * The text of every timeslot and provider is encoded once up front, and dates and
+ * numbers are written digit by digit, so a row costs no String.format call and no
+ * trip through a synchronized, autoflushing PrintStream.
+ */
+public class ReportWriter {
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+    private static final byte[][] TIMESLOTS = new byte[Timeslot.values().length][];
+    private static final byte[][] PROVIDERS = new byte[Provider.values().length][];
+
+    static {
+        for (Timeslot timeslot : Timeslot.values()) {
+            TIMESLOTS[timeslot.ordinal()] = timeslot.toString().getBytes(CHARSET);
+        }
+        for (Provider provider : Provider.values()) {
+            PROVIDERS[provider.ordinal()] = provider.toString().getBytes(CHARSET);
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+
+    /**
+     * Constructor for the ReportWriter class.
+     * @param out The stream the report is written to.
+     */
+    public ReportWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.count = 0;
+    }
+
+    /**
+     * Appends an appointment in the same form as Appointment.toString.
+     * @param appointment The appointment to append.
+     * @return this writer.
+     */
+    public ReportWriter append(Appointment appointment) {
+        append(appointment.getDate()).append(' ');
+        append(appointment.getTimeslot()).append(' ');
+        append(appointment.getPatient()).append(' ');
+        return append('[').append(appointment.getProvider()).append(']');
+    }
+
+    /**
+     * Appends a profile in the same form as Profile.toString.
+     * @param profile The profile to append.
+     * @return this writer.
+     */
+    public ReportWriter append(Profile profile) {
+        append(profile.getFirstName()).append(' ');
+        append(profile.getLastName()).append(' ');
+        return append(profile.getDob());
+    }
+
+    /**
+     * Appends a date in the same form as Date.toString, M/D/YYYY.
+     * @param date The date to append.
+     * @return this writer.
+     */
+    public ReportWriter append(Date date) {
+        append(date.getMonth()).append('/');
+        append(date.getDay()).append('/');
+        int year = date.getYear();
+        for (int width = 1000; width > 1 && year >= 0 && year < width; width /= 10) {
+            append('0');
+        }
+        return append(year);
+    }
+
+    /**
+     * Appends the pre-encoded text of a timeslot.
+     * @param timeslot The timeslot to append.
+     * @return this writer.
+     */
+    public ReportWriter append(Timeslot timeslot) {
+        return append(TIMESLOTS[timeslot.ordinal()]);
+    }
+
+    /**
+     * Appends the pre-encoded text of a provider.
+     * @param provider The provider to append.
+     * @return this writer.
+     */
+    public ReportWriter append(Provider provider) {
+        return append(PROVIDERS[provider.ordinal()]);
+    }
+
+    /**
+     * Appends a dollar amount with thousands separators and cents, such as $1,250.00.
+     * @param dollars The whole-dollar amount.
+     * @return this writer.
+     */
+    public ReportWriter appendDollars(long dollars) {
+        if (dollars < 0) {
+            append('-');
+            dollars = -dollars;
+        }
+        append('$');
+        long group = 1;
+        while (group <= dollars / 1000) {
+            group *= 1000;
+        }
+        append((int) (dollars / group));
+        for (group /= 1000; group > 0; group /= 1000) {
+            int part = (int) (dollars / group % 1000);
+            append(',');
+            if (part < 100) {
+                append('0');
+            }
+            if (part < 10) {
+                append('0');
+            }
+            append(part);
+        }
+        return append(".00");
+    }
+
+    /**
+     * Appends a decimal integer.
+     * @param value The value to append.
+     * @return this writer.
+     */
+    public ReportWriter append(int value) {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                return append(Integer.toString(value));
+            }
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+        return this;
+    }
+
+    /**
+     * Appends text, copying ASCII characters directly and encoding anything else.
+     * @param text The text to append.
+     * @return this writer.
+     */
+    public ReportWriter append(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                return append(text.getBytes(CHARSET));
+            }
+        }
+        for (int start = 0; start < length; ) {
+            // a string longer than the buffer is copied one buffer-sized piece at a time
+            ensure(Math.min(length - start, buffer.length));
+            int end = Math.min(length, start + buffer.length - count);
+            for (int i = start; i < end; i++) {
+                buffer[count++] = (byte) text.charAt(i);
+            }
+            start = end;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a single ASCII character.
+     * @param c The character to append.
+     * @return this writer.
+     */
+    public ReportWriter append(char c) {
+        ensure(1);
+        buffer[count++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Ends the current line with the platform line separator, as println does.
+     * @return this writer.
+     */
+    public ReportWriter newLine() {
+        return append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes everything buffered so far to the stream.
+     */
+    public void flush() {
+        try {
+            out.write(buffer, 0, count);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count = 0;
+    }
+
+    private ReportWriter append(byte[] bytes) {
+        if (bytes.length > buffer.length) {
+            flush();
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /**
+     * Makes room for the given number of bytes, writing the buffer out if it is too full.
+     */
+    private void ensure(int length) {
+        if (count + length > buffer.length) {
+            flush();
+        }
+    }
+
+    // Testbed main
+
+    /**
+     * Main method for testing the ReportWriter class.
+     * Writes ASCII and non-ASCII strings shorter and longer than the buffer and checks
+     * that the bytes written are the strings' own.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        String shortText = "PATEL, SOMERSET 08807";
+        String longText = "x".repeat(3 * BUFFER_SIZE + 17);
+        String longAccented = "\u00e9".repeat(BUFFER_SIZE + 3);
+
+        // Test case 1
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ReportWriter(bytes).append(shortText).flush();
+        System.out.println("Test case 1: " + bytes.toString(CHARSET).equals(shortText)); // Expected: true
+
+        // Test case 2
+        bytes.reset();
+        new ReportWriter(bytes).append(shortText).append(longText).append(shortText).flush();
+        System.out.println("Test case 2: "
+                + bytes.toString(CHARSET).equals(shortText + longText + shortText)); // Expected: true
+
+        // Test case 3
+        bytes.reset();
+        new ReportWriter(bytes).append(longAccented).flush();
+        System.out.println("Test case 3: "
+                + Arrays.equals(bytes.toByteArray(), longAccented.getBytes(CHARSET))); // Expected: true
+    }
+}
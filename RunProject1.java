@@ -1,5 +1,62 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import javax.management.JMException;
+
 public class RunProject1 {
-    public static void main(String[] args) {
-        new Scheduler().run();
+    /**
+     * Starts the scheduler.
+     * Usage: RunProject1 [-journal journalFile] [-snapshot snapshotFile] [-port port] [commandFile]
+     * With a journal file, appointments survive restarts; with a snapshot file, they are
+     * checkpointed so a restart only replays the end of the journal; with a port, clients
+     * connect to a server on localhost instead; with a command file, the commands are run
+     * in batch mode instead of being read from standard input.
+     * The command metrics are registered with the platform MBean server so they can be read through JMX.
+     * @param args Command line arguments.
+     * @throws IOException if the journal or snapshot cannot be opened or read.
+     * @throws JMException if the command metrics cannot be registered.
+     */
+    public static void main(String[] args) throws IOException, JMException {
+        Path journalPath = null;
+        Path snapshotPath = null;
+        int port = -1;
+        Path batchPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-journal") && i + 1 < args.length) {
+                journalPath = Paths.get(args[++i]);
+            } else if (args[i].equals("-snapshot") && i + 1 < args.length) {
+                snapshotPath = Paths.get(args[++i]);
+            } else if (args[i].equals("-port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                batchPath = Paths.get(args[i]);
+            }
+        }
+
+        Journal journal = journalPath == null ? null : new Journal(journalPath);
+        try {
+            Scheduler scheduler = journal == null && snapshotPath == null ? new Scheduler()
+                    : new Scheduler(Clock.systemDefaultZone(), journal, snapshotPath);
+            scheduler.getMetrics().register();
+            if (port >= 0) {
+                if (journal != null) {
+                    // the server runs until the process is stopped, so sync the waiting records on the way out
+                    Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "journal-shutdown"));
+                }
+                try (SchedulerServer server = new SchedulerServer(scheduler, port)) {
+                    System.out.println("Scheduler is listening on port " + server.getPort() + ".");
+                    server.serve();
+                }
+            } else if (batchPath != null) {
+                scheduler.runBatch(batchPath);
+            } else {
+                scheduler.run();
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,303 +1,528 @@
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Scheduler {
-    private List appointmentList;
+    private static final int FIELDS_PER_APPOINTMENT = 7;
+    private static final long CHECKPOINT_INTERVAL = 100_000; // journal records between snapshots
+
+    private SchedulingCore core;
     private MedicalRecord medicalRecord;
-    private Scanner scanner;
+    private PatientRegistry patients; // canonical profiles of the patients booked, shared with every session and the core
+    private BookingCalendar bookingCalendar;
+    private Journal journal;
+    private Path snapshot;
+    private AtomicLong nextCheckpoint; // journal record count that makes a snapshot due, shared with every session
+    private Object checkpointLock; // held while a snapshot is written, shared with every session
+    private Scheduler owner; // the scheduler that writes the snapshots, this one unless it is a session
+    private PrintStream out;
+    private ReportWriter report; // writes the listings to out, created by the first print command
+    private CommandListener listener; // told about every command, or null
+    private CommandMetrics metrics; // shared with every session
 
     public Scheduler() {
-        appointmentList = new List();
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the Scheduler class.
+     * @param clock The clock that decides what today is when validating dates.
+     */
+    public Scheduler(Clock clock) {
+        initialize(clock, null, null);
+        core = new SchedulingCore(new List(), null, newSlotGrid(), patients);
+    }
+
+    /**
+     * Constructor for the Scheduler class that keeps its appointments in a journal.
+     * The journal is replayed first, so the scheduler starts where the last run left off,
+     * and every later change is appended to it.
+     * @param clock The clock that decides what today is when validating dates.
+     * @param journal The journal to replay and append to.
+     * @throws IOException if the journal cannot be read.
+     */
+    public Scheduler(Clock clock, Journal journal) throws IOException {
+        this(clock, journal, null);
+    }
+
+    /**
+     * Constructor for the Scheduler class that also checkpoints its state to a snapshot file.
+     * The snapshot is loaded first and only the journal records written after it are replayed;
+     * a new snapshot is written every CHECKPOINT_INTERVAL journal records and when the run ends.
+     * @param clock The clock that decides what today is when validating dates.
+     * @param journal The journal to replay and append to, or null for none.
+     * @param snapshot The snapshot file to load and write, or null for none.
+     * @throws IOException if the snapshot or the journal cannot be read.
+     */
+    public Scheduler(Clock clock, Journal journal, Path snapshot) throws IOException {
+        initialize(clock, journal, snapshot);
+        List recovered = new List();
+        long offset = snapshot == null ? 0 : Snapshot.load(snapshot, recovered, medicalRecord);
+        if (journal != null) {
+            journal.replay(recovered, offset);
+        }
+        core = new SchedulingCore(recovered, journal, newSlotGrid(), patients);
+        if (journal != null && snapshot != null && journal.getLength() < offset) {
+            checkpoint(); // the journal lost records the snapshot holds; start again from here
+        }
+    }
+
+    /**
+     * Sets up everything but the scheduling core, which each constructor builds once
+     * from the appointments it starts with.
+     */
+    private void initialize(Clock clock, Journal journal, Path snapshot) {
+        owner = this;
+        out = System.out;
+        metrics = new CommandMetrics();
         medicalRecord = new MedicalRecord();
-        scanner = new Scanner(System.in);
+        patients = new PatientRegistry();
+        bookingCalendar = new BookingCalendar(clock);
+        this.journal = journal;
+        this.snapshot = snapshot;
+        nextCheckpoint = new AtomicLong(CHECKPOINT_INTERVAL);
+        checkpointLock = new Object();
+    }
+
+    /**
+     * Constructor for a session that shares another scheduler's calendar.
+     */
+    private Scheduler(Scheduler owner, PrintStream out) {
+        this.owner = owner;
+        this.out = out;
+        this.core = owner.core;
+        this.medicalRecord = owner.medicalRecord;
+        this.patients = owner.patients;
+        this.bookingCalendar = owner.bookingCalendar;
+        this.journal = owner.journal;
+        this.snapshot = owner.snapshot;
+        this.metrics = owner.metrics;
+        this.nextCheckpoint = owner.nextCheckpoint;
+        this.checkpointLock = owner.checkpointLock;
+    }
+
+    /**
+     * Creates a session for another client, such as a network connection.
+     * The session books against the same scheduling core, journal and calendar as this
+     * scheduler, and writes its responses to its own stream. Sessions may run on
+     * different threads at the same time.
+     * @param out The stream the session's responses are written to.
+     * @return the session.
+     */
+    public Scheduler newSession(PrintStream out) {
+        return new Scheduler(this, out);
+    }
+
+    /**
+     * Creates the grid that bookings claim their slots in, starting with the first bookable day.
+     */
+    private SlotGrid newSlotGrid() {
+        return new SlotGrid(bookingCalendar.getToday() + 1, SlotGrid.DEFAULT_DAYS);
+    }
+
+    /**
+     * Sets the listener that is told about every command this scheduler processes.
+     * Sessions have their own listener, which starts out null.
+     * @param listener The listener, or null for none.
+     */
+    public void setCommandListener(CommandListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the counts and latencies of the commands processed by this scheduler and its sessions.
+     * @return the metrics.
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the scheduling core that holds the appointments, so that other clients,
+     * such as network sessions, can book against the same calendar.
+     * @return the scheduling core.
+     */
+    public SchedulingCore getCore() {
+        return core;
     }
 
     public void run() {
-        System.out.println("Scheduler is running.");
-        while (true) {
-            String input = null;
-            if(!scanner.hasNextLine()) {
-                break;
-            }
-            input = scanner.nextLine().trim();
+        run(Channels.newChannel(System.in));
+    }
 
-            if(input.isEmpty()) {
-                continue;
-            }
-            String[] tokens = input.split(",");
-            String command = tokens[0].trim();
-            switch (command) {
-                case "S":
-                    scheduleAppointment(tokens);
+    /**
+     * Processes the commands read from a channel until it ends or a Q command is read.
+     * @param in The channel to read commands from.
+     * @return the number of commands processed.
+     */
+    public int run(ReadableByteChannel in) {
+        return run(new CommandReader(in));
+    }
+
+    /**
+     * Runs the commands in a file, reading it through memory-mapped windows,
+     * and prints how many commands were processed per second.
+     * @param path The command file.
+     */
+    public void runBatch(Path path) {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long start = System.nanoTime();
+            int count = run(new CommandReader(file));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            out.printf("Processed %,d commands in %.3f seconds (%,.0f commands/sec).%n",
+                    count, seconds, seconds > 0 ? count / seconds : 0.0);
+        } catch (IOException e) {
+            out.println("Cannot read " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processes commands until the input ends or a Q command is read.
+     * @param command The reader positioned before the first command.
+     * @return the number of commands processed, including the Q command.
+     */
+    private int run(CommandReader command) {
+        out.println("Scheduler is running.");
+        out.flush();
+        int count = 0;
+        while (command.next()) {
+            count++;
+            CommandType type = command.getType();
+            long start = System.nanoTime();
+            CommandOutcome outcome;
+            switch (type) {
+                case SCHEDULE:
+                    outcome = scheduleAppointment(command);
+                    break;
+                case CANCEL:
+                    outcome = cancelAppointment(command);
                     break;
-                case "C":
-                    cancelAppointment(tokens);
+                case RESCHEDULE:
+                    outcome = rescheduleAppointment(command);
                     break;
-                case "R":
-                    rescheduleAppointment(tokens);
+                case PRINT_BY_APPOINTMENT:
+                    outcome = printAppointments();
                     break;
-                case "PA":
-                    printAppointments();
+                case PRINT_BY_PATIENT:
+                    outcome = printPatients();
                     break;
-                case "PP":
-                    printPatients();
+                case PRINT_BY_LOCATION:
+                    outcome = printLocations();
                     break;
-                case "PL":
-                    printLocations();
+                case PRINT_BILLING:
+                    outcome = printBillingStatements();
                     break;
-                case "PS":
-                    printBillingStatements();
+                case METRICS:
+                    metrics.print(out);
+                    outcome = CommandOutcome.OK;
                     break;
-                case "Q":
-                    System.out.println("Scheduler is terminated.");
-                    scanner.close();
-                    return;
+                case QUIT:
+                    out.println("Scheduler is terminated.");
+                    out.flush();
+                    commandProcessed(type, CommandOutcome.OK, start);
+                    if (owner == this) {
+                        checkpoint();
+                    }
+                    return count;
                 default:
-                    System.out.println("Invalid command!");
+                    out.println("Invalid command!");
+                    outcome = CommandOutcome.INVALID_COMMAND;
+            }
+            out.flush();
+            commandProcessed(type, outcome, start);
+            if (journal != null && snapshot != null) {
+                checkpointIfDue();
             }
         }
+        if (owner == this) {
+            checkpoint();
+        }
+        return count;
     }
 
-    private void scheduleAppointment(String[] tokens) {
-        String dateStr = tokens[1].trim();
-        String slotNumStr = tokens[2].trim();
-        String fname = tokens[3].trim();
-        String lname = tokens[4].trim();
-        String dobStr = tokens[5].trim();
-        String providerName = tokens[6].trim();
-
-        if(!(slotNumStr.equals("1") || slotNumStr.equals("2") ||
-                slotNumStr.equals("3") || slotNumStr.equals("4") ||
-                slotNumStr.equals("5") || slotNumStr.equals("6"))){
-            System.out.println(slotNumStr + " is not a valid time slot.");
-            return;
+    /**
+     * Records a finished command in the metrics and tells the listener, if there is one.
+     */
+    private void commandProcessed(CommandType type, CommandOutcome outcome, long start) {
+        long nanos = System.nanoTime() - start;
+        metrics.record(type, outcome, nanos);
+        if (listener != null) {
+            listener.commandProcessed(type, nanos);
         }
-        int slotNum = Integer.parseInt(slotNumStr);
-
-        Date date = parseDate(dateStr);
-        Date dob = parseDate(dobStr);
-        Timeslot timeslot = Timeslot.values()[slotNum - 1];
-        Profile profile = new Profile(fname, lname, dob);
-        Provider provider = null;
+    }
 
-        try{
-            provider = Provider.valueOf(providerName.toUpperCase());
-        } catch (IllegalArgumentException e){
-            System.out.println(providerName + " - provider doesn't exist.");
-            return;
+    /**
+     * Writes a snapshot once CHECKPOINT_INTERVAL journal records have been added since the last one.
+     * The check takes no lock; of the commands that find a snapshot due, only the one that
+     * wins the compare-and-set writes it.
+     */
+    private void checkpointIfDue() {
+        long due = nextCheckpoint.get();
+        if (journal.getRecordCount() >= due && nextCheckpoint.compareAndSet(due, Long.MAX_VALUE)) {
+            checkpoint();
         }
+    }
 
-        if (!date.isValid()) {
-            System.out.println("Appointment date: " + dateStr + " is not a valid calendar date.");
+    /**
+     * Writes a snapshot of the appointments and medical record, if there is a snapshot file,
+     * then discards the journal records it includes.
+     * The calendar is only locked while the appointments are copied, so other sessions carry
+     * on booking while the file is written; the journal is cut only once the snapshot is on disk.
+     */
+    private void checkpoint() {
+        if (snapshot == null) {
             return;
         }
-
-        if (date.isBeforeOrEqualToToday()) {
-            System.out.println("Appointment date: " + dateStr + " is today or a date before today.");
-            return;
+        synchronized (checkpointLock) {
+            long records = journal == null ? 0 : journal.getRecordCount();
+            try {
+                long offset = core.writeSnapshot(snapshot, medicalRecord);
+                if (journal != null) {
+                    journal.discardBefore(offset);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                nextCheckpoint.set(records + CHECKPOINT_INTERVAL);
+            }
         }
+    }
 
-        if (date.isWeekend()) {
-            System.out.println("Appointment date: " + dateStr + " is Saturday or Sunday.");
-            return;
+    private CommandOutcome scheduleAppointment(CommandReader command) {
+        SchedulingEvent event = new SchedulingEvent();
+        event.begin();
+        if (command.getFieldCount() < FIELDS_PER_APPOINTMENT) {
+            out.println("Invalid command!");
+            return CommandOutcome.INVALID_COMMAND;
         }
-
-        if (!date.isWithinSixMonths()) {
-            System.out.println("Appointment date: " + dateStr + " is not within six months.");
-            return;
+        Timeslot timeslot = command.getTimeslot(2);
+        if (timeslot == null) {
+            out.println(command.getText(2) + " is not a valid time slot.");
+            return CommandOutcome.INVALID_TIMESLOT;
         }
 
-        if(dob.isAfterOrEqualToToday()){
-            System.out.println("Patient dob: "+ dobStr + " is today or a date after today.");
-            return;
+        Date date = command.getDate(1);
+        Date dob = command.getDate(5);
+        Provider provider = command.getProvider(6);
+        if (provider == null) {
+            out.println(command.getText(6) + " - provider doesn't exist.");
+            return CommandOutcome.INVALID_PROVIDER;
         }
-        if(!dob.isValid()){
-            System.out.println("Patient dob: " + dobStr + " is not a valid calendar date.");
-            return;
+
+        if (!isValidAppointmentDate(date, command.getText(1))) {
+            return CommandOutcome.INVALID_DATE;
         }
-        if(hasExistingAppointment(date, timeslot, profile , provider)){
-            System.out.println(profile.getFirstName() + " " + profile.getLastName() + " " + profile.getDob() + " has an existing appointment at the same time slot.");
-            return;
+        if (!isValidDateOfBirth(dob, command.getText(5))) {
+            return CommandOutcome.INVALID_DOB;
         }
-        if(!isProviderAvailable(date, timeslot, provider)) {
-            System.out.println("[" + provider + "] is not available at slot " + (timeslot.ordinal() + 1) + ".");
-            return;
-        }
-
+        // A patient seen before is matched by their canonical profile; a new one is registered only if booked
+        Profile profile = patients.lookup(new Profile(command.getText(3), command.getText(4), dob));
         Appointment appointment = new Appointment(date, timeslot, profile, provider);
-        if (appointmentList.contains(appointment)) {
-            System.out.println("Appointment already exists!");
-            return;
+        BookingOutcome booked = core.schedule(appointment);
+        commit(event, CommandType.SCHEDULE, provider, timeslot, booked);
+        switch (booked) {
+            case ALREADY_BOOKED:
+                out.println(profile.getFirstName() + " " + profile.getLastName() + " " + profile.getDob() + " has an existing appointment at the same time slot.");
+                return CommandOutcome.ALREADY_BOOKED;
+            case PROVIDER_BUSY:
+                out.println("[" + provider + "] is not available at slot " + (timeslot.ordinal() + 1) + ".");
+                return CommandOutcome.NOT_AVAILABLE;
+            default:
+                out.println(appointment + " booked.");
+                return CommandOutcome.OK;
         }
-
-        appointmentList.add(appointment);
-        System.out.println(appointment + " booked.");
     }
 
-    private void cancelAppointment(String[] tokens) {
-        String dateStr = tokens[1].trim();
-        int slotNum = Integer.parseInt(tokens[2].trim());
-        String fname = tokens[3].trim();
-        String lname = tokens[4].trim();
-        String dobStr = tokens[5].trim();
-        String providerName = tokens[6].trim();
-
-        Provider provider = null;
-
-        try{
-            provider = Provider.valueOf(providerName.toUpperCase());
-        } catch (IllegalArgumentException e){
-            System.out.println(providerName + " - provider doesn't exist.");
-            return;
+    private CommandOutcome cancelAppointment(CommandReader command) {
+        SchedulingEvent event = new SchedulingEvent();
+        event.begin();
+        if (command.getFieldCount() < FIELDS_PER_APPOINTMENT) {
+            out.println("Invalid command!");
+            return CommandOutcome.INVALID_COMMAND;
+        }
+        Provider provider = command.getProvider(6);
+        if (provider == null) {
+            out.println(command.getText(6) + " - provider doesn't exist.");
+            return CommandOutcome.INVALID_PROVIDER;
+        }
+        Timeslot timeslot = command.getTimeslot(2);
+        if (timeslot == null) {
+            out.println(command.getText(2) + " is not a valid time slot.");
+            return CommandOutcome.INVALID_TIMESLOT;
         }
 
-
-        Date date = parseDate(dateStr);
-        Date dob = parseDate(dobStr);
-        Timeslot timeslot = Timeslot.values()[slotNum - 1];
-        Profile profile = new Profile(fname, lname, dob);
+        Date date = command.getDate(1);
+        Date dob = command.getDate(5);
+        String fname = command.getText(3);
+        String lname = command.getText(4);
+        Profile profile = patients.lookup(new Profile(fname, lname, dob));
 
         Appointment appointmentToCancel = new Appointment(date, timeslot, profile, provider);
-        if (appointmentList.contains(appointmentToCancel)) {
-            appointmentList.remove(appointmentToCancel);
-            System.out.println(dateStr + " " + timeslot.toString() + " " + fname + " " + lname + " " + dobStr + " has been canceled.");
-        } else {
-            System.out.println(dateStr + " " + timeslot.toString() + " " + fname + " " + lname + " " + dobStr + " does not exist.");
+        BookingOutcome canceled = core.cancel(appointmentToCancel);
+        commit(event, CommandType.CANCEL, provider, timeslot, canceled);
+        if (canceled == BookingOutcome.CANCELED) {
+            out.println(command.getText(1) + " " + timeslot.toString() + " " + fname + " " + lname + " " + command.getText(5) + " has been canceled.");
+            return CommandOutcome.OK;
         }
+        out.println(command.getText(1) + " " + timeslot.toString() + " " + fname + " " + lname + " " + command.getText(5) + " does not exist.");
+        return CommandOutcome.NOT_FOUND;
     }
 
-    private void rescheduleAppointment(String[] tokens) {
-        String dateStr = tokens[1].trim();
-        int oldSlotNum = Integer.parseInt(tokens[2].trim());
-        String fname = tokens[3].trim();
-        String lname = tokens[4].trim();
-        String dobStr = tokens[5].trim();
-        int newSlotNum = Integer.parseInt(tokens[6].trim());
-
-        Date date = parseDate(dateStr);
-        Date dob = parseDate(dobStr);
-
-        Timeslot oldTimeslot = Timeslot.values()[oldSlotNum - 1];
-        Profile profile = new Profile(fname, lname, dob);
-
-
-        //find the appointment based on the date,time,
-        Appointment existingAppointment = null;
-        for (int i = 0; i < appointmentList.getSize(); i++) {
-            Appointment appointment = appointmentList.getAppointment(i);
-            if (appointment.getDate().equals(date) &&
-                    appointment.getTimeslot().equals(oldTimeslot) &&
-                    appointment.getPatient().equals(profile)) {
-                existingAppointment = appointment;
-                break;
-            }
+    private CommandOutcome rescheduleAppointment(CommandReader command) {
+        SchedulingEvent event = new SchedulingEvent();
+        event.begin();
+        if (command.getFieldCount() < FIELDS_PER_APPOINTMENT) {
+            out.println("Invalid command!");
+            return CommandOutcome.INVALID_COMMAND;
         }
+        Timeslot oldTimeslot = command.getTimeslot(2);
+        if (oldTimeslot == null) {
+            out.println(command.getText(2) + " is not a valid time slot.");
+            return CommandOutcome.INVALID_TIMESLOT;
+        }
+        Date date = command.getDate(1);
+        Date dob = command.getDate(5);
+        String fname = command.getText(3);
+        String lname = command.getText(4);
+        Profile profile = patients.lookup(new Profile(fname, lname, dob));
+
+
+        //find the appointment based on the date,time and patient, with any provider
+        Appointment existingAppointment = core.find(date, oldTimeslot, profile);
 
         if (existingAppointment == null) {
-            System.out.println(dateStr + " " + oldTimeslot + " " + fname + " " + lname + " " + dobStr + " does not exist.");
-            return;
+            commit(event, CommandType.RESCHEDULE, null, oldTimeslot, BookingOutcome.NOT_FOUND);
+            out.println(command.getText(1) + " " + oldTimeslot + " " + fname + " " + lname + " " + command.getText(5) + " does not exist.");
+            return CommandOutcome.NOT_FOUND;
         }
         Provider provider = existingAppointment.getProvider();
 
+        int newSlotNum = command.getInt(6);
         if (newSlotNum < 1 || newSlotNum > 6) {
-            System.out.println( newSlotNum + " is not a valid time slot.");
-            return;
+            out.println((newSlotNum == CommandReader.NOT_A_NUMBER ? command.getText(6) : String.valueOf(newSlotNum)) + " is not a valid time slot.");
+            return CommandOutcome.INVALID_TIMESLOT;
         }
         Timeslot newTimeslot = Timeslot.values()[newSlotNum - 1];
 
 
-        if (!date.isValid()) {
-            System.out.println("Appointment date: " + dateStr + " is not a valid calendar date.");
-            return;
-        }
-
-        if (date.isBeforeOrEqualToToday()) {
-            System.out.println("Appointment date: " + dateStr + " is today or a date before today.");
-            return;
-        }
-
-        if (date.isWeekend()) {
-            System.out.println("Appointment date: " + dateStr + " is Saturday or Sunday.");
-            return;
+        if (!isValidAppointmentDate(date, command.getText(1))) {
+            return CommandOutcome.INVALID_DATE;
         }
-
-        if (!date.isWithinSixMonths()) {
-            System.out.println("Appointment date: " + dateStr + " is not within six months.");
-            return;
+        if (!isValidDateOfBirth(dob, command.getText(5))) {
+            return CommandOutcome.INVALID_DOB;
         }
 
-        if(dob.isAfterOrEqualToToday()){
-            System.out.println("Patient dob: "+ dobStr + " is today or a date after today.");
-            return;
-        }
-        if(!dob.isValid()){
-            System.out.println("Patient dob: " + dobStr + " is not a valid calendar date.");
-            return;
+        BookingOutcome rescheduled = core.reschedule(existingAppointment, newTimeslot);
+        commit(event, CommandType.RESCHEDULE, provider, oldTimeslot, rescheduled);
+        switch (rescheduled) {
+            case NOT_FOUND: // canceled by another client since it was found
+                out.println(command.getText(1) + " " + oldTimeslot + " " + fname + " " + lname + " " + command.getText(5) + " does not exist.");
+                return CommandOutcome.NOT_FOUND;
+            case ALREADY_BOOKED:
+                out.println(fname + " " + lname + " " + command.getText(5) + " has an existing appointment at the new time slot.");
+                return CommandOutcome.ALREADY_BOOKED;
+            case PROVIDER_BUSY:
+                out.println("[" + provider + "] is not available at slot " + newSlotNum + ".");
+                return CommandOutcome.NOT_AVAILABLE;
+            default:
+                break;
         }
+        out.println("Rescheduled to " + command.getText(1) + " " + newTimeslot + " " + fname + " " + lname + " " + command.getText(5) + " [" + provider + "]");
+        return CommandOutcome.OK;
+    }
 
-        Appointment newAppointment = new Appointment(date, newTimeslot, profile,  provider);
-
-        if (appointmentList.contains(newAppointment)) {
-            System.out.println(fname + " " + lname + " " + dobStr + " has an existing appointment at the new time slot.");
-            return;
-        }
 
-        if (!isProviderAvailable(date, newTimeslot, provider)) {
-            System.out.println("[" + provider + "] is not available at slot " + newSlotNum + ".");
-            return;
+    /**
+     * Commits a scheduling event if Flight Recorder is recording it.
+     * The fields, including the list size, are only worked out when it is.
+     */
+    private void commit(SchedulingEvent event, CommandType type, Provider provider, Timeslot timeslot,
+                        BookingOutcome outcome) {
+        if (event.shouldCommit()) {
+            event.command = type.getCode();
+            event.provider = provider == null ? null : provider.name();
+            event.timeslot = timeslot.ordinal() + 1;
+            event.listSize = core.getSize();
+            event.outcome = outcome.name();
+            event.commit();
         }
-
-        appointmentList.remove(existingAppointment);
-        appointmentList.add(newAppointment);
-        System.out.println("Rescheduled to " + dateStr + " " + newTimeslot + " " + fname + " " + lname + " " + dobStr + " [" + provider + "]");
     }
 
-
-    private void printAppointments() {
-        appointmentList.printByAppointment();
+    private CommandOutcome printAppointments() {
+        List.printAppointments(report(), ListOrder.BY_APPOINTMENT, core.getAppointments(ListOrder.BY_APPOINTMENT));
+        return CommandOutcome.OK;
     }
 
-    private void printPatients() {
-        appointmentList.printByPatient();
+    private CommandOutcome printPatients() {
+        List.printAppointments(report(), ListOrder.BY_PATIENT, core.getAppointments(ListOrder.BY_PATIENT));
+        return CommandOutcome.OK;
     }
 
-    private void printLocations() {
-        appointmentList.printByLocation();
+    private CommandOutcome printLocations() {
+        List.printAppointments(report(), ListOrder.BY_LOCATION, core.getAppointments(ListOrder.BY_LOCATION));
+        return CommandOutcome.OK;
     }
 
-    private void printBillingStatements() {
-        appointmentList.printBillingStatements();
+    private CommandOutcome printBillingStatements() {
+        List.printBillingStatements(report(), core.takeAll());
+        return CommandOutcome.OK;
     }
 
-    private boolean isProviderAvailable(Date date, Timeslot timeslot, Provider provider) {
-        for(int i = 0; i<appointmentList.getSize(); i++){
-            //we need to get the appointment for each index and then we should then check of there is a appointment at that time slot with that provider on that date
-            Appointment indexedAppointment = appointmentList.getAppointment(i);
-            if (indexedAppointment.getDate().equals(date) && indexedAppointment.getTimeslot().equals(timeslot) && indexedAppointment.getProvider().equals(provider)){
-                return false;
-            }
+    /**
+     * Gets the writer for the print commands, creating it on first use.
+     */
+    private ReportWriter report() {
+        if (report == null) {
+            report = new ReportWriter(out);
         }
-        return true;
-    }
-
-    private boolean hasExistingAppointment(Date date, Timeslot timeslot, Profile profile, Provider provider) {
-        Appointment tempAppointment = new Appointment(date, timeslot, profile, provider);
-        return appointmentList.contains(tempAppointment);
+        return report;
     }
 
 
-    private Date parseDate(String dateStr) {
-        String[] parts = dateStr.split("/");
-        int month = Integer.parseInt(parts[0]);
-        int day = Integer.parseInt(parts[1]);
-        int year = Integer.parseInt(parts[2]);
-        return new Date(year, month, day);
-    }
-
-    private boolean isValidAppointmentDate(Date date) {
-        return date.isValid();
+    /**
+     * Checks an appointment date against the booking calendar, printing the reason if it cannot be booked.
+     * @param date The appointment date.
+     * @param dateStr The date as it was typed.
+     * @return true if the date can be booked, false otherwise.
+     */
+    private boolean isValidAppointmentDate(Date date, String dateStr) {
+        if (bookingCalendar.isBookable(date)) {
+            return true;
+        }
+        if (!date.isValid()) {
+            out.println("Appointment date: " + dateStr + " is not a valid calendar date.");
+        } else if (date.toEpochDay() <= bookingCalendar.getToday()) {
+            out.println("Appointment date: " + dateStr + " is today or a date before today.");
+        } else if (date.isWeekend()) {
+            out.println("Appointment date: " + dateStr + " is Saturday or Sunday.");
+        } else {
+            out.println("Appointment date: " + dateStr + " is not within six months.");
+        }
+        return false;
     }
 
-    private boolean isValidDateOfBirth(Date dob) {
-        return dob.isValid();
+    /**
+     * Checks a patient's date of birth, printing the reason if it is not acceptable.
+     * @param dob The date of birth.
+     * @param dobStr The date of birth as it was typed.
+     * @return true if the date of birth is a valid date before today, false otherwise.
+     */
+    private boolean isValidDateOfBirth(Date dob, String dobStr) {
+        if (dob.toEpochDay() >= bookingCalendar.getToday()) {
+            out.println("Patient dob: " + dobStr + " is today or a date after today.");
+            return false;
+        }
+        if (!dob.isValid()) {
+            out.println("Patient dob: " + dobStr + " is not a valid calendar date.");
+            return false;
+        }
+        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TCP front end for the scheduler on the loopback interface.
+ * Each connection gets its own scheduler session and speaks the same line protocol as
+ * standard input: commands such as S, C, R, PA and PS are sent one per line, and the
+ * responses come back exactly as they would be printed. Q ends the connection's session.
+ * Every session books against the one scheduling core of the scheduler the server was made for.
+ * Connections are served on virtual threads when the JVM has them (Java 21 and later),
+ * so idle or slow clients cost little; older JVMs fall back to a platform thread per connection.
+ */
+public class SchedulerServer implements Closeable {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 13;
+    private static final int BACKLOG = 1024; // connections waiting to be accepted
+
+    private final Scheduler scheduler;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections;
+
+    /**
+     * Constructor for the SchedulerServer class, which binds the port but does not accept yet.
+     * @param scheduler The scheduler whose calendar every connection shares.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public SchedulerServer(Scheduler scheduler, int port) throws IOException {
+        this.scheduler = scheduler;
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.connections = newConnectionExecutor();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     * @return the port.
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each on its own thread.
+     * @throws IOException if accepting fails for a reason other than the server being closed.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            connections.execute(() -> handle(connection));
+        }
+    }
+
+    /**
+     * Stops accepting connections. Connections already open are served until they end.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * Runs a scheduler session over one connection and closes it when the session ends.
+     */
+    private void handle(SocketChannel connection) {
+        try (SocketChannel channel = connection) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // responses are small and awaited
+            PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_SIZE));
+            scheduler.newSession(out).run(channel);
+            out.flush();
+        } catch (IOException | UncheckedIOException e) {
+            // the client went away; its session simply ends
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task if the JVM supports them.
+     * It is looked up reflectively so the server still compiles and runs on older JVMs.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "scheduler-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
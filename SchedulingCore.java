@@ -0,0 +1,607 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe appointment store that many clients can book against at once.
+ * Appointments are spread over STRIPES lists by (provider, day), each guarded by its own lock,
+ * so bookings for different providers or days proceed in parallel and two bookings of the
+ * same provider slot are always serialized. A second set of locks, striped by patient,
+ * makes each patient's requests atomic, including the search across providers that a
+ * reschedule does. A patient lock is always taken before a slot lock and at most one slot
+ * lock is held per request, so requests cannot deadlock; operations on the whole calendar
+ * take every slot lock in index order. Changes are journaled while the slot lock is held,
+ * so the journal records conflicting changes in the order they were made.
+ * A stripe's list is only created once something is booked in it, and every list shares
+ * one patient registry. Listings copy each list's sorted view under its own lock and
+ * merge the copies, so they never hold more than one slot lock.
+ *
+ * With a SlotGrid, slots on the days it covers are claimed with compare-and-set instead:
+ * a booking takes no patient lock, and a booking that loses the race for a slot returns
+ * at once without touching any lock. Only the winner locks its stripe to store the
+ * appointment. A reschedule claims the new slot before it releases the old one.
+ */
+public class SchedulingCore {
+    private static final int STRIPES = 256; // a power of two
+    private static final int PATIENT_STRIPES = 256; // a power of two
+    private static final Provider[] PROVIDERS = Provider.values();
+
+    private final List[] shards; // null until the stripe has an appointment
+    private final PatientRegistry patients; // shared by every shard
+    private final ReentrantLock[] slotLocks;
+    private final ReentrantLock[] patientLocks;
+    private final Journal journal;
+    private final AtomicLong bookings; // booking order handed to the next appointment added
+    private final AtomicInteger size; // appointments in every shard, changed under the shard's lock
+    private final SlotGrid grid; // owners of the slots on the days it covers, or null
+
+    /**
+     * Constructor for the SchedulingCore class that books every slot under its locks.
+     * @param initial Appointments to start with, such as those replayed from a journal.
+     * @param journal The journal to append changes to, or null for none.
+     */
+    public SchedulingCore(List initial, Journal journal) {
+        this(initial, journal, null);
+    }
+
+    /**
+     * Constructor for the SchedulingCore class.
+     * @param initial Appointments to start with, such as those replayed from a journal.
+     * @param journal The journal to append changes to, or null for none.
+     * @param grid The grid to claim slots in without locking, or null to always lock.
+     */
+    public SchedulingCore(List initial, Journal journal, SlotGrid grid) {
+        this(initial, journal, grid, new PatientRegistry());
+    }
+
+    /**
+     * Constructor for the SchedulingCore class with a patient registry shared with its owner.
+     * @param initial Appointments to start with, such as those replayed from a journal.
+     * @param journal The journal to append changes to, or null for none.
+     * @param grid The grid to claim slots in without locking, or null to always lock.
+     * @param patients The registry that patients are interned in once they are booked.
+     */
+    public SchedulingCore(List initial, Journal journal, SlotGrid grid, PatientRegistry patients) {
+        this.journal = journal;
+        this.grid = grid;
+        this.patients = patients;
+        shards = new List[STRIPES];
+        slotLocks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
+        patientLocks = new ReentrantLock[PATIENT_STRIPES];
+        for (int i = 0; i < PATIENT_STRIPES; i++) {
+            patientLocks[i] = new ReentrantLock();
+        }
+        bookings = new AtomicLong();
+        size = new AtomicInteger();
+        for (int i = 0; i < initial.getSize(); i++) {
+            long order = initial.getBookingOrder(initial.getAppointment(i));
+            Appointment appointment = withCanonicalPatient(initial.getAppointment(i));
+            shard(stripeOf(appointment.getDate(), appointment.getProvider())).add(appointment, order);
+            if (isInGrid(appointment.getDate())) {
+                grid.claim(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                        appointment.getProvider(), appointment.getPatient());
+            }
+            bookings.set(Math.max(bookings.get(), order + 1));
+        }
+        for (List shard : shards) {
+            size.addAndGet(shard == null ? 0 : shard.getSize());
+        }
+    }
+
+    /**
+     * Books an appointment if the patient does not already have it and the provider is free.
+     * The patient is registered only once the booking succeeds, and the appointment kept is
+     * one with the patient's canonical profile.
+     * @param appointment The appointment to book.
+     * @return BOOKED, ALREADY_BOOKED or PROVIDER_BUSY.
+     */
+    public BookingOutcome schedule(Appointment appointment) {
+        return committed(isInGrid(appointment.getDate()) ? scheduleInGrid(appointment) : scheduleInStripe(appointment));
+    }
+
+    /**
+     * Books an appointment under its patient's and its stripe's locks.
+     */
+    private BookingOutcome scheduleInStripe(Appointment appointment) {
+        ReentrantLock patientLock = lockPatient(appointment.getPatient());
+        try {
+            int stripe = stripeOf(appointment.getDate(), appointment.getProvider());
+            slotLocks[stripe].lock();
+            try {
+                List shard = shards[stripe];
+                if (shard != null && shard.contains(appointment)) {
+                    return BookingOutcome.ALREADY_BOOKED;
+                }
+                if (shard != null && shard.isSlotTaken(appointment.getDate(), appointment.getTimeslot(),
+                        appointment.getProvider())) {
+                    return BookingOutcome.PROVIDER_BUSY;
+                }
+                appointment = withCanonicalPatient(appointment);
+                shard(stripe).add(appointment, bookings.getAndIncrement());
+                size.incrementAndGet();
+                if (journal != null) {
+                    journal.appendSchedule(appointment);
+                }
+                return BookingOutcome.BOOKED;
+            } finally {
+                slotLocks[stripe].unlock();
+            }
+        } finally {
+            patientLock.unlock();
+        }
+    }
+
+    /**
+     * Books an appointment by claiming its slot in the grid, locking only once the slot is won.
+     */
+    private BookingOutcome scheduleInGrid(Appointment appointment) {
+        Profile holder = grid.claim(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                appointment.getProvider(), appointment.getPatient());
+        if (holder != null) {
+            // the cell names its holder, whether or not the winner has stored its appointment yet
+            return holder.equals(appointment.getPatient()) ? BookingOutcome.ALREADY_BOOKED : BookingOutcome.PROVIDER_BUSY;
+        }
+        int stripe = stripeOf(appointment.getDate(), appointment.getProvider());
+        appointment = withCanonicalPatient(appointment);
+        slotLocks[stripe].lock();
+        try {
+            shard(stripe).add(appointment, bookings.getAndIncrement());
+            size.incrementAndGet();
+            if (journal != null) {
+                journal.appendSchedule(appointment);
+            }
+        } finally {
+            slotLocks[stripe].unlock();
+        }
+        return BookingOutcome.BOOKED;
+    }
+
+    /**
+     * Cancels an appointment.
+     * @param appointment The appointment to cancel.
+     * @return CANCELED, or NOT_FOUND if it is not booked.
+     */
+    public BookingOutcome cancel(Appointment appointment) {
+        return committed(cancelInStripe(appointment));
+    }
+
+    private BookingOutcome cancelInStripe(Appointment appointment) {
+        ReentrantLock patientLock = lockPatient(appointment.getPatient());
+        try {
+            int stripe = stripeOf(appointment.getDate(), appointment.getProvider());
+            slotLocks[stripe].lock();
+            try {
+                List shard = shards[stripe];
+                if (shard == null || !shard.contains(appointment)) {
+                    return BookingOutcome.NOT_FOUND;
+                }
+                shard.remove(appointment);
+                size.decrementAndGet();
+                if (journal != null) {
+                    journal.appendCancel(appointment);
+                }
+                release(appointment);
+                return BookingOutcome.CANCELED;
+            } finally {
+                slotLocks[stripe].unlock();
+            }
+        } finally {
+            patientLock.unlock();
+        }
+    }
+
+    /**
+     * Finds a patient's appointment at a date and timeslot with any provider.
+     * Each provider is probed once; if the patient has several, the one booked first is returned.
+     * @param date The date of the appointment.
+     * @param timeslot The timeslot of the appointment.
+     * @param patient The patient's profile.
+     * @return the appointment, or null if the patient has none at that time.
+     */
+    public Appointment find(Date date, Timeslot timeslot, Profile patient) {
+        ReentrantLock patientLock = lockPatient(patient);
+        try {
+            Appointment first = null;
+            long firstOrder = Long.MAX_VALUE;
+            for (Provider provider : PROVIDERS) {
+                Appointment appointment = new Appointment(date, timeslot, patient, provider);
+                int stripe = stripeOf(date, provider);
+                slotLocks[stripe].lock();
+                try {
+                    long order = shards[stripe] == null ? -1 : shards[stripe].getBookingOrder(appointment);
+                    if (order != -1 && order < firstOrder) {
+                        first = appointment;
+                        firstOrder = order;
+                    }
+                } finally {
+                    slotLocks[stripe].unlock();
+                }
+            }
+            return first;
+        } finally {
+            patientLock.unlock();
+        }
+    }
+
+    /**
+     * Moves an appointment to another timeslot on the same day with the same provider.
+     * @param appointment The appointment to move, as returned by find.
+     * @param newTimeslot The timeslot to move it to.
+     * @return RESCHEDULED, NOT_FOUND if it was canceled in the meantime,
+     *         ALREADY_BOOKED or PROVIDER_BUSY.
+     */
+    public BookingOutcome reschedule(Appointment appointment, Timeslot newTimeslot) {
+        return committed(rescheduleInStripe(appointment, newTimeslot));
+    }
+
+    private BookingOutcome rescheduleInStripe(Appointment appointment, Timeslot newTimeslot) {
+        ReentrantLock patientLock = lockPatient(appointment.getPatient());
+        try {
+            int stripe = stripeOf(appointment.getDate(), appointment.getProvider());
+            slotLocks[stripe].lock();
+            try {
+                List shard = shards[stripe];
+                if (shard == null || !shard.contains(appointment)) {
+                    return BookingOutcome.NOT_FOUND;
+                }
+                Appointment moved = new Appointment(appointment.getDate(), newTimeslot,
+                        appointment.getPatient(), appointment.getProvider());
+                if (isInGrid(moved.getDate())) {
+                    // claim the new slot first, so the patient is never left without either
+                    Profile holder = grid.claim(moved.getDate().toEpochDay(), newTimeslot, moved.getProvider(),
+                            moved.getPatient());
+                    if (holder != null) {
+                        return holder.equals(moved.getPatient()) ? BookingOutcome.ALREADY_BOOKED : BookingOutcome.PROVIDER_BUSY;
+                    }
+                } else if (shard.contains(moved)) {
+                    return BookingOutcome.ALREADY_BOOKED;
+                } else if (shard.isSlotTaken(moved.getDate(), newTimeslot, moved.getProvider())) {
+                    return BookingOutcome.PROVIDER_BUSY;
+                }
+                shard.remove(appointment);
+                shard.add(moved, bookings.getAndIncrement());
+                if (journal != null) {
+                    journal.appendReschedule(appointment, newTimeslot);
+                }
+                release(appointment);
+                return BookingOutcome.RESCHEDULED;
+            } finally {
+                slotLocks[stripe].unlock();
+            }
+        } finally {
+            patientLock.unlock();
+        }
+    }
+
+    /**
+     * Gets every appointment in one of the print orders.
+     * Each stripe is locked only while its sorted view is copied, and the copies are merged
+     * after the lock is released, so bookings in other stripes carry on meanwhile. Each
+     * provider's day is consistent, but a change made while the listing is taken may only
+     * be partly in it.
+     * @param order The order of the listing.
+     * @return the appointments, in order.
+     */
+    public Appointment[] getAppointments(ListOrder order) {
+        PriorityQueue<Run> runs = new PriorityQueue<>(STRIPES);
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            Appointment[] rows;
+            slotLocks[i].lock();
+            try {
+                rows = shards[i] == null ? null : shards[i].toArray(order);
+            } finally {
+                slotLocks[i].unlock();
+            }
+            if (rows != null && rows.length > 0) {
+                runs.add(new Run(rows, order));
+                size += rows.length;
+            }
+        }
+        Appointment[] merged = new Appointment[size];
+        for (int i = 0; i < size; i++) {
+            Run run = runs.poll();
+            merged[i] = run.rows[run.next++];
+            if (run.next < run.rows.length) {
+                runs.add(run);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * A sorted copy of one stripe's view while the stripes are merged.
+     */
+    private static class Run implements Comparable<Run> {
+        private final Appointment[] rows;
+        private final ListOrder order;
+        private int next;
+
+        Run(Appointment[] rows, ListOrder order) {
+            this.rows = rows;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Run other) {
+            return order.compare(rows[next], other.rows[other.next]);
+        }
+    }
+
+    /**
+     * Removes every appointment, as PS does after billing, and returns what was removed.
+     * Every slot lock is held while the stripes' lists are detached, the clear is journaled
+     * and their grid slots are released, so no booking sees a slot held by an appointment
+     * that is no longer in the calendar.
+     * @return the lists that held appointments, which no longer belong to the core.
+     */
+    public List[] takeAll() {
+        List[] taken = new List[STRIPES];
+        int count = 0;
+        lockAll();
+        try {
+            for (int i = 0; i < STRIPES; i++) {
+                if (shards[i] != null && shards[i].getSize() > 0) {
+                    taken[count++] = shards[i];
+                    size.addAndGet(-shards[i].getSize());
+                }
+                shards[i] = null;
+            }
+            if (count > 0 && journal != null) {
+                journal.appendClear();
+            }
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < taken[i].getSize(); j++) {
+                    release(taken[i].getAppointment(j));
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+        if (count > 0 && journal != null) {
+            journal.commit();
+        }
+        return Arrays.copyOf(taken, count);
+    }
+
+    /**
+     * Writes a snapshot of every appointment and the journal offset it matches.
+     * The calendar is only locked while the appointments are copied into an array,
+     * not while the file is written.
+     * @param path The snapshot file.
+     * @param record The medical record to save with the appointments.
+     * @return the journal offset the snapshot was taken at, or 0 if there is no journal.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public long writeSnapshot(Path path, MedicalRecord record) throws IOException {
+        Appointment[] all;
+        long[] bookingOrders;
+        long offset;
+        lockAll();
+        try {
+            int size = 0;
+            for (List shard : shards) {
+                size += shard == null ? 0 : shard.getSize();
+            }
+            all = new Appointment[size];
+            bookingOrders = new long[size];
+            int next = 0;
+            for (List shard : shards) {
+                for (int i = 0; shard != null && i < shard.getSize(); i++) {
+                    all[next] = shard.getAppointment(i);
+                    bookingOrders[next] = shard.getBookingOrder(all[next]);
+                    next++;
+                }
+            }
+            offset = journal == null ? 0 : journal.getLength();
+        } finally {
+            unlockAll();
+        }
+        Snapshot.write(path, all, bookingOrders, record, offset);
+        return offset;
+    }
+
+    /**
+     * Gets the number of appointments, as of one moment, without taking any lock.
+     * Every change updates a counter while it holds its stripe's lock, so this is cheap
+     * enough to read on every command.
+     * @return the number of appointments.
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Gets the list of a stripe, creating it on its first booking. The stripe's lock must be held.
+     */
+    private List shard(int stripe) {
+        if (shards[stripe] == null) {
+            shards[stripe] = new List(patients);
+        }
+        return shards[stripe];
+    }
+
+    /**
+     * Checks if the slots of a date are claimed in the grid rather than under the locks.
+     */
+    private boolean isInGrid(Date date) {
+        return grid != null && date.isValid() && grid.covers(date.toEpochDay());
+    }
+
+    /**
+     * Frees the grid slot of an appointment that has been removed, if it is in the grid.
+     * Slots claimed by bookings that are not stored yet are left alone.
+     */
+    private void release(Appointment appointment) {
+        if (isInGrid(appointment.getDate())) {
+            grid.release(appointment.getDate().toEpochDay(), appointment.getTimeslot(),
+                    appointment.getProvider(), appointment.getPatient());
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : slotLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            slotLocks[i].unlock();
+        }
+    }
+
+    private ReentrantLock lockPatient(Profile patient) {
+        int hash = patient.hashCode() * 0x9E3779B9;
+        ReentrantLock lock = patientLocks[(hash ^ (hash >>> 16)) & (PATIENT_STRIPES - 1)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Waits for the journal record of a change to reach the disk, so the change is only
+     * reported once it would survive a crash. No lock is held, so other changes can join
+     * the same group.
+     */
+    private BookingOutcome committed(BookingOutcome outcome) {
+        if (journal != null && (outcome == BookingOutcome.BOOKED || outcome == BookingOutcome.CANCELED
+                || outcome == BookingOutcome.RESCHEDULED)) {
+            journal.commit();
+        }
+        return outcome;
+    }
+
+    /**
+     * Gets an appointment whose patient is the canonical profile, registering the patient.
+     */
+    private Appointment withCanonicalPatient(Appointment appointment) {
+        Profile patient = patients.canonical(appointment.getPatient());
+        if (patient == appointment.getPatient()) {
+            return appointment;
+        }
+        return new Appointment(appointment.getDate(), appointment.getTimeslot(), patient, appointment.getProvider());
+    }
+
+    /**
+     * Gets the stripe of the list and lock that own a provider's appointments on a day.
+     */
+    private static int stripeOf(Date date, Provider provider) {
+        int hash = (date.toEpochDay() * PROVIDERS.length + provider.ordinal()) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Testbed main: several threads book, cancel and reschedule random appointments on a
+     * small calendar so that they collide constantly, while every provider slot counts how
+     * many appointments hold it. A count above one is a double booking.
+     * Usage: SchedulingCore [threads] [operations] [locked], where locked turns off the grid.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int days = 20;
+        int firstDay = new Date(2030, 1, 1).toEpochDay();
+        Timeslot[] timeslots = Timeslot.values();
+        Profile[] patients = new Profile[50];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Profile("First" + i, "Last" + i, new Date(1990, 1, 1 + i % 28));
+        }
+        boolean locked = args.length > 2 && args[2].equals("locked");
+        SlotGrid grid = locked ? null : new SlotGrid(firstDay, days);
+        SchedulingCore core = new SchedulingCore(new List(), null, grid);
+        AtomicIntegerArray holders = new AtomicIntegerArray(days * PROVIDERS.length * timeslots.length);
+        AtomicLong doubleBookings = new AtomicLong();
+
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations / threads; i++) {
+                    int day = random.nextInt(days);
+                    Provider provider = PROVIDERS[random.nextInt(PROVIDERS.length)];
+                    Timeslot timeslot = timeslots[random.nextInt(timeslots.length)];
+                    Profile patient = patients[random.nextInt(patients.length)];
+                    Appointment appointment = new Appointment(Date.ofEpochDay(firstDay + day), timeslot, patient, provider);
+                    int cell = (day * PROVIDERS.length + provider.ordinal()) * timeslots.length;
+                    int operation = random.nextInt(3);
+                    if (operation == 0 && core.schedule(appointment) == BookingOutcome.BOOKED) {
+                        if (holders.incrementAndGet(cell + timeslot.ordinal()) > 1) {
+                            doubleBookings.incrementAndGet();
+                        }
+                    } else if (operation == 1) {
+                        // release the count first: once canceled, the slot may be booked again at once
+                        holders.decrementAndGet(cell + timeslot.ordinal());
+                        if (core.cancel(appointment) != BookingOutcome.CANCELED) {
+                            holders.incrementAndGet(cell + timeslot.ordinal());
+                        }
+                    } else if (operation == 2) {
+                        Appointment existing = core.find(appointment.getDate(), timeslot, patient);
+                        Timeslot newTimeslot = timeslots[random.nextInt(timeslots.length)];
+                        if (existing == null) {
+                            continue;
+                        }
+                        int oldCell = (day * PROVIDERS.length + existing.getProvider().ordinal()) * timeslots.length;
+                        holders.decrementAndGet(oldCell + timeslot.ordinal());
+                        if (core.reschedule(existing, newTimeslot) == BookingOutcome.RESCHEDULED) {
+                            if (holders.incrementAndGet(oldCell + newTimeslot.ordinal()) > 1) {
+                                doubleBookings.incrementAndGet();
+                            }
+                        } else {
+                            holders.incrementAndGet(oldCell + timeslot.ordinal());
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int held = 0;
+        for (int i = 0; i < holders.length(); i++) {
+            held += holders.get(i);
+        }
+        System.out.printf("%d threads, %,d operations in %.3f seconds (%,.0f ops/sec)%n",
+                threads, operations, seconds, operations / seconds);
+        System.out.println("Test case 1: double bookings seen = " + doubleBookings.get() + " // Expected 0");
+        System.out.println("Test case 2: booked slots = " + core.getSize() + ", counted = " + held + " // Expected equal");
+        Appointment[] listing = core.getAppointments(ListOrder.BY_APPOINTMENT);
+        boolean sorted = true;
+        for (int i = 1; i < listing.length; i++) {
+            sorted &= ListOrder.BY_APPOINTMENT.compare(listing[i - 1], listing[i]) < 0;
+        }
+        System.out.println("Test case 3: listed = " + listing.length + ", in order = " + sorted + " // Expected " + held + ", true");
+        int billed = 0;
+        for (List shard : core.takeAll()) {
+            billed += shard.getSize();
+        }
+        System.out.println("Test case 4: slots after PS = " + billed + " // Expected " + held);
+        System.out.println("Test case 5: slots left = " + core.getSize() + " // Expected 0");
+        Appointment again = new Appointment(Date.ofEpochDay(firstDay), Timeslot.values()[0], patients[0], PROVIDERS[0]);
+        System.out.println("Test case 6: booking after PS = " + core.schedule(again) + " // Expected BOOKED");
+        // "Aa" and "BB" have the same String hash, but the grid tells the two patients apart
+        Profile aa = new Profile("Aa", "Same", new Date(1990, 1, 1));
+        Profile bb = new Profile("BB", "Same", new Date(1990, 1, 1));
+        core.schedule(new Appointment(Date.ofEpochDay(firstDay + 1), timeslots[0], aa, PROVIDERS[0]));
+        BookingOutcome collided = core.schedule(new Appointment(Date.ofEpochDay(firstDay + 1), timeslots[0], bb, PROVIDERS[0]));
+        System.out.println("Test case 7: other patient with the same name hash = " + collided + " // Expected PROVIDER_BUSY");
+        if (grid != null) {
+            // a slot won by the patient whose appointment is not stored yet, as in a concurrent duplicate booking
+            grid.claim(firstDay + 2, timeslots[0], PROVIDERS[0], aa);
+            BookingOutcome duplicate = core.schedule(new Appointment(Date.ofEpochDay(firstDay + 2), timeslots[0], aa, PROVIDERS[0]));
+            System.out.println("Test case 8: same patient while the winner stores it = " + duplicate + " // Expected ALREADY_BOOKED");
+        }
+    }
+}
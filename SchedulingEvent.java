@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for an S, C or R command that reached the scheduling core.
+ * The duration runs from the start of the command to the core's answer, so it covers
+ * parsing, validation and any waiting for locks, but not writing the response.
+ * Fields are only filled in when the event will be committed, so with recording off
+ * an event costs a begin and a shouldCommit check.
+ */
+@Name("scheduler.Scheduling")
+@Label("Scheduling Command")
+@Category("Scheduler")
+@Description("An S, C or R command and the scheduling core's answer")
+@StackTrace(false)
+class SchedulingEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Timeslot")
+    @Description("The timeslot named in the command, 1 to 6")
+    int timeslot;
+
+    @Label("List Size")
+    @Description("Appointments in the calendar after the command")
+    int listSize;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,150 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ownership of provider slots over a fixed range of days.
+ * Every (day, provider, timeslot) cell is one reference in an AtomicReferenceArray, holding
+ * null when the slot is free or the profile of the patient who holds it. Claiming a slot is
+ * a single compare-and-set, so two clients racing for the same slot never block: one wins
+ * and the other sees exactly who holds it, without waiting for the winner to store its
+ * appointment anywhere.
+ */
+public class SlotGrid {
+    public static final int DEFAULT_DAYS = 366; // six months of bookable days, good for six more months
+
+    private static final int PROVIDERS = Provider.values().length;
+    private static final int TIMESLOTS = Timeslot.values().length;
+
+    private final int firstDay;
+    private final int days;
+    private final AtomicReferenceArray<Profile> cells;
+
+    /**
+     * Constructor for the SlotGrid class.
+     * @param firstDay The epoch day of the first day covered.
+     * @param days The number of days covered.
+     */
+    public SlotGrid(int firstDay, int days) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.cells = new AtomicReferenceArray<>(days * PROVIDERS * TIMESLOTS);
+    }
+
+    /**
+     * Checks if a day is inside the range of the grid.
+     * @param epochDay The day to check.
+     * @return true if the grid has cells for the day, false otherwise.
+     */
+    public boolean covers(int epochDay) {
+        return epochDay >= firstDay && epochDay - firstDay < days;
+    }
+
+    /**
+     * Claims a slot for a patient if it is free.
+     * @param epochDay The day of the slot, which must be covered.
+     * @param timeslot The timeslot.
+     * @param provider The provider.
+     * @param patient The profile of the patient claiming the slot.
+     * @return null if the slot was claimed, otherwise the profile of whoever holds it.
+     */
+    public Profile claim(int epochDay, Timeslot timeslot, Provider provider, Profile patient) {
+        int cell = cellOf(epochDay, timeslot, provider);
+        while (true) {
+            if (cells.compareAndSet(cell, null, patient)) {
+                return null;
+            }
+            Profile holder = cells.get(cell);
+            if (holder != null) {
+                return holder;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot held by a patient.
+     * @param epochDay The day of the slot, which must be covered.
+     * @param timeslot The timeslot.
+     * @param provider The provider.
+     * @param patient The patient the slot is expected to be held by, as an equal profile.
+     * @return true if the slot was released, false if the patient did not hold it.
+     */
+    public boolean release(int epochDay, Timeslot timeslot, Provider provider, Profile patient) {
+        int cell = cellOf(epochDay, timeslot, provider);
+        Profile holder = cells.get(cell);
+        return holder != null && holder.equals(patient) && cells.compareAndSet(cell, holder, null);
+    }
+
+    /**
+     * Gets who holds a slot.
+     * @param epochDay The day of the slot, which must be covered.
+     * @param timeslot The timeslot.
+     * @param provider The provider.
+     * @return the profile of the patient holding it, or null if the slot is free.
+     */
+    public Profile getOwner(int epochDay, Timeslot timeslot, Provider provider) {
+        return cells.get(cellOf(epochDay, timeslot, provider));
+    }
+
+    private int cellOf(int epochDay, Timeslot timeslot, Provider provider) {
+        return ((epochDay - firstDay) * PROVIDERS + provider.ordinal()) * TIMESLOTS + timeslot.ordinal();
+    }
+
+    /**
+     * Benchmark main: runs the same random mix of bookings and cancellations against a
+     * scheduling core that claims slots with compare-and-set and one that only uses its locks,
+     * on a calendar small enough that threads fight over the same slots.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int firstDay = new Date(2030, 1, 1).toEpochDay();
+        for (int round = 0; round < 2; round++) { // the first round warms up the JIT
+            for (boolean lockFree : new boolean[] {false, true}) {
+                SchedulingCore core = new SchedulingCore(new List(), null,
+                        lockFree ? new SlotGrid(firstDay, DEFAULT_DAYS) : null);
+                double seconds = run(core, threads, operations, firstDay);
+                if (round == 1) {
+                    System.out.printf("%-10s %d threads: %,.0f ops/sec, %d booked%n",
+                            lockFree ? "CAS" : "locked", threads, operations / seconds, core.getSize());
+                }
+            }
+        }
+    }
+
+    private static double run(SchedulingCore core, int threads, int operations, int firstDay)
+            throws InterruptedException {
+        Provider[] providers = Provider.values();
+        Timeslot[] timeslots = Timeslot.values();
+        Profile[] patients = new Profile[64];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Profile("First" + i, "Last" + i, new Date(1990, 1, 1 + i % 28));
+        }
+        Appointment[] appointments = new Appointment[1 << 14];
+        ThreadLocalRandom seed = ThreadLocalRandom.current();
+        for (int i = 0; i < appointments.length; i++) {
+            appointments[i] = new Appointment(Date.ofEpochDay(firstDay + seed.nextInt(5)),
+                    timeslots[seed.nextInt(TIMESLOTS)], patients[seed.nextInt(patients.length)],
+                    providers[seed.nextInt(PROVIDERS)]);
+        }
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations / threads; i++) {
+                    Appointment appointment = appointments[random.nextInt(appointments.length)];
+                    if (random.nextInt(4) == 0) {
+                        core.cancel(appointment);
+                    } else {
+                        core.schedule(appointment);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Records which timeslots of each provider are taken on each day.
+ * Every (day, provider) pair owns one byte and every timeslot one bit of it,
+ * so checking a provider's availability is a single bit test.
+ * A slot can only hold one appointment, so clearing its bit frees it.
+ */
+public class SlotOccupancy {
+    private static final int PROVIDERS = Provider.values().length;
+
+    private byte[] cells; // indexed by (epochDay - firstDay) * PROVIDERS + provider ordinal
+    private int firstDay;
+    private int days;
+
+    /**
+     * Constructor for the SlotOccupancy class.
+     * Initializes an empty bitmap.
+     */
+    public SlotOccupancy() {
+        cells = new byte[0];
+        firstDay = 0;
+        days = 0;
+    }
+
+    /**
+     * Checks if a provider's timeslot is taken on a day.
+     * @param epochDay The epoch day to check.
+     * @param timeslot The timeslot to check.
+     * @param provider The provider to check.
+     * @return true if the slot is taken, false otherwise.
+     */
+    public boolean isTaken(int epochDay, Timeslot timeslot, Provider provider) {
+        int day = epochDay - firstDay;
+        if (day < 0 || day >= days) {
+            return false;
+        }
+        return (cells[day * PROVIDERS + provider.ordinal()] & (1 << timeslot.ordinal())) != 0;
+    }
+
+    /**
+     * Marks a provider's timeslot as taken on a day.
+     * @param epochDay The epoch day of the appointment.
+     * @param timeslot The timeslot of the appointment.
+     * @param provider The provider of the appointment.
+     */
+    public void take(int epochDay, Timeslot timeslot, Provider provider) {
+        cover(epochDay);
+        cells[(epochDay - firstDay) * PROVIDERS + provider.ordinal()] |= (byte) (1 << timeslot.ordinal());
+    }
+
+    /**
+     * Marks a provider's timeslot as free on a day.
+     * @param epochDay The epoch day of the appointment.
+     * @param timeslot The timeslot of the appointment.
+     * @param provider The provider of the appointment.
+     */
+    public void release(int epochDay, Timeslot timeslot, Provider provider) {
+        int day = epochDay - firstDay;
+        if (day >= 0 && day < days) {
+            cells[day * PROVIDERS + provider.ordinal()] &= (byte) ~(1 << timeslot.ordinal());
+        }
+    }
+
+    /**
+     * Marks every slot as free.
+     */
+    public void clear() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = 0;
+        }
+    }
+
+    /**
+     * Grows the bitmap so that it covers the given day.
+     */
+    private void cover(int epochDay) {
+        if (days == 0) {
+            firstDay = epochDay;
+            days = 1;
+            cells = new byte[64 * PROVIDERS];
+            return;
+        }
+        int capacity = cells.length / PROVIDERS;
+        if (epochDay >= firstDay && epochDay - firstDay < capacity) {
+            days = Math.max(days, epochDay - firstDay + 1);
+            return;
+        }
+        int newFirst = Math.min(firstDay, epochDay);
+        int needed = Math.max(firstDay + days, epochDay + 1) - newFirst;
+        int newCapacity = Math.max(capacity * 2, needed);
+        byte[] newCells = new byte[newCapacity * PROVIDERS];
+        System.arraycopy(cells, 0, newCells, (firstDay - newFirst) * PROVIDERS, days * PROVIDERS);
+        cells = newCells;
+        firstDay = newFirst;
+        days = needed;
+    }
+}
@@ -0,0 +1,267 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Binary checkpoint of the appointment list and the medical record.
+ * A snapshot holds the state at a known offset in the journal, so a restart maps the
+ * snapshot and replays only the journal records written after it.
+ *
+ * The file is a 40-byte header followed by fixed-width sections:
+ * [int magic][int version][long journal offset][int strings][int string bytes]
+ * [int profiles][int appointments][int patients][int visits],
+ * then the string table as (strings + 1) int offsets and the UTF-8 bytes of every name,
+ * profile rows [int first name][int last name][int dob epoch day],
+ * appointment rows [int epoch day][int profile][byte timeslot][byte provider][short 0],
+ * patient rows [int profile][int visits], and visit rows laid out like appointment rows,
+ * in patient order. Names and profiles are stored once and referred to by index.
+ * Appointment rows are in the order the appointments were booked, so loading them back
+ * in file order keeps which of a patient's appointments was booked first.
+ * The whole file is mapped to load it, so it must fit in 2 GB; a larger one is refused
+ * when it is written.
+ * A snapshot is written to a temporary file and moved over the old one, so a crash
+ * while writing leaves the previous snapshot in place.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x52555343; // "RUSC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int PROFILE_SIZE = 12;
+    private static final int APPOINTMENT_SIZE = 12;
+    private static final int PATIENT_SIZE = 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+    private static final Provider[] PROVIDERS = Provider.values();
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a list and a medical record, replacing any earlier snapshot.
+     * @param path The snapshot file.
+     * @param list The appointments to save.
+     * @param record The patients and visits to save.
+     * @param journalOffset The length of the journal that the saved state includes.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static void write(Path path, List list, MedicalRecord record, long journalOffset) throws IOException {
+        Appointment[] appointments = new Appointment[list.getSize()];
+        long[] bookingOrders = new long[appointments.length];
+        for (int i = 0; i < appointments.length; i++) {
+            appointments[i] = list.getAppointment(i);
+            bookingOrders[i] = list.getBookingOrder(appointments[i]);
+        }
+        write(path, appointments, bookingOrders, record, journalOffset);
+    }
+
+    /**
+     * Writes a snapshot of appointments copied out of a list, or several lists, and a medical
+     * record, replacing any earlier snapshot.
+     * @param path The snapshot file.
+     * @param appointments The appointments to save, in any order.
+     * @param bookingOrders The booking order of each appointment; rows are written in this order.
+     * @param record The patients and visits to save.
+     * @param journalOffset The length of the journal that the saved state includes.
+     * @throws IOException if the snapshot cannot be written or would be larger than 2 GB.
+     */
+    public static void write(Path path, Appointment[] appointments, long[] bookingOrders, MedicalRecord record,
+                             long journalOffset) throws IOException {
+        Integer[] rows = new Integer[appointments.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        Arrays.sort(rows, Comparator.comparingLong(row -> bookingOrders[row]));
+        PatientRegistry profiles = new PatientRegistry();
+        StringTable names = new StringTable();
+        int visitCount = 0;
+        for (Appointment appointment : appointments) {
+            profiles.intern(appointment.getPatient());
+        }
+        for (int i = 0; i < record.getSize(); i++) {
+            profiles.intern(record.getPatient(i).getProfile());
+            for (Visit chunk = record.getPatient(i).getVisits(); chunk != null; chunk = chunk.getNext()) {
+                for (int j = 0; j < chunk.getSize(); j++) {
+                    profiles.intern(chunk.getAppointment(j).getPatient());
+                }
+            }
+            visitCount += record.getPatient(i).getVisitCount();
+        }
+        int[] firstNames = new int[profiles.getSize() + 1];
+        int[] lastNames = new int[profiles.getSize() + 1];
+        for (int id = 1; id <= profiles.getSize(); id++) {
+            firstNames[id] = names.intern(profiles.getProfile(id).getFirstName());
+            lastNames[id] = names.intern(profiles.getProfile(id).getLastName());
+        }
+        byte[][] encoded = new byte[names.getSize()][];
+        long stringBytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[i].length;
+        }
+        long fileSize = HEADER_SIZE + (encoded.length + 1L) * 4 + stringBytes
+                + (long) profiles.getSize() * PROFILE_SIZE + (long) appointments.length * APPOINTMENT_SIZE
+                + (long) record.getSize() * PATIENT_SIZE + (long) visitCount * APPOINTMENT_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("a snapshot of " + fileSize + " bytes is larger than the 2 GB one can be loaded from");
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(journalOffset);
+            buffer.putInt(encoded.length).putInt((int) stringBytes).putInt(profiles.getSize());
+            buffer.putInt(appointments.length).putInt(record.getSize()).putInt(visitCount);
+            int offset = 0;
+            for (int i = 0; i <= encoded.length; i++) {
+                reserve(channel, buffer, 4);
+                buffer.putInt(offset);
+                offset += i < encoded.length ? encoded[i].length : 0;
+            }
+            for (byte[] bytes : encoded) {
+                for (int start = 0; start < bytes.length; ) {
+                    reserve(channel, buffer, 1);
+                    int length = Math.min(buffer.remaining(), bytes.length - start);
+                    buffer.put(bytes, start, length);
+                    start += length;
+                }
+            }
+            for (int id = 1; id <= profiles.getSize(); id++) {
+                reserve(channel, buffer, PROFILE_SIZE);
+                buffer.putInt(firstNames[id]).putInt(lastNames[id]);
+                buffer.putInt(profiles.getProfile(id).getDob().toEpochDay());
+            }
+            for (Integer row : rows) {
+                putAppointment(channel, buffer, appointments[row], profiles);
+            }
+            for (int i = 0; i < record.getSize(); i++) {
+                Patient patient = record.getPatient(i);
+                reserve(channel, buffer, PATIENT_SIZE);
+                buffer.putInt(profiles.find(patient.getProfile()) - 1).putInt(patient.getVisitCount());
+            }
+            for (int i = 0; i < record.getSize(); i++) {
+                for (Visit chunk = record.getPatient(i).getVisits(); chunk != null; chunk = chunk.getNext()) {
+                    for (int j = 0; j < chunk.getSize(); j++) {
+                        putAppointment(channel, buffer, chunk.getAppointment(j), profiles);
+                    }
+                }
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into an empty list and medical record by mapping the file.
+     * @param path The snapshot file.
+     * @param list The list to fill with the saved appointments.
+     * @param record The medical record to fill with the saved patients and visits.
+     * @return the journal offset the snapshot was taken at, or 0 if there is no snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public static long load(Path path, List list, MedicalRecord record) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than the 2 GB a snapshot can be");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException(path + " is not a scheduler snapshot");
+        }
+        long journalOffset = data.getLong(8);
+        int stringCount = data.getInt(16);
+        int stringBytes = data.getInt(20);
+        int profileCount = data.getInt(24);
+        int appointmentCount = data.getInt(28);
+        int patientCount = data.getInt(32);
+        int visitCount = data.getInt(36);
+        long fileSize = HEADER_SIZE + (stringCount + 1L) * 4 + (stringBytes & 0xFFFFFFFFL)
+                + (profileCount & 0xFFFFFFFFL) * PROFILE_SIZE + (appointmentCount & 0xFFFFFFFFL) * APPOINTMENT_SIZE
+                + (patientCount & 0xFFFFFFFFL) * PATIENT_SIZE + (visitCount & 0xFFFFFFFFL) * APPOINTMENT_SIZE;
+        if (stringCount < 0 || data.limit() != fileSize) {
+            throw new IOException(path + " is truncated");
+        }
+        // the sections fit in the mapped file, so every offset from here on fits in an int
+        int position = HEADER_SIZE;
+        int bytesStart = position + (stringCount + 1) * 4;
+        int profilesStart = bytesStart + stringBytes;
+        int appointmentsStart = profilesStart + profileCount * PROFILE_SIZE;
+        int patientsStart = appointmentsStart + appointmentCount * APPOINTMENT_SIZE;
+        int visitsStart = patientsStart + patientCount * PATIENT_SIZE;
+
+        String[] strings = new String[stringCount];
+        byte[] bytes = new byte[stringBytes];
+        data.get(bytesStart, bytes);
+        for (int i = 0; i < stringCount; i++) {
+            int start = data.getInt(position + i * 4);
+            int end = data.getInt(position + i * 4 + 4);
+            strings[i] = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+        Profile[] profiles = new Profile[profileCount];
+        for (int i = 0; i < profileCount; i++) {
+            int row = profilesStart + i * PROFILE_SIZE;
+            profiles[i] = new Profile(strings[data.getInt(row)], strings[data.getInt(row + 4)],
+                    Date.ofEpochDay(data.getInt(row + 8)));
+        }
+        for (int i = 0; i < appointmentCount; i++) {
+            list.add(getAppointment(data, appointmentsStart + i * APPOINTMENT_SIZE, profiles));
+        }
+        int visit = visitsStart;
+        for (int i = 0; i < patientCount; i++) {
+            int row = patientsStart + i * PATIENT_SIZE;
+            Patient patient = new Patient(profiles[data.getInt(row)]);
+            for (int visits = data.getInt(row + 4); visits > 0; visits--) {
+                patient.addVisit(getAppointment(data, visit, profiles));
+                visit += APPOINTMENT_SIZE;
+            }
+            record.add(patient);
+        }
+        return journalOffset;
+    }
+
+    private static void putAppointment(FileChannel channel, ByteBuffer buffer, Appointment appointment,
+                                       PatientRegistry profiles) throws IOException {
+        reserve(channel, buffer, APPOINTMENT_SIZE);
+        buffer.putInt(appointment.getDate().toEpochDay());
+        buffer.putInt(profiles.find(appointment.getPatient()) - 1);
+        buffer.put((byte) appointment.getTimeslot().ordinal());
+        buffer.put((byte) appointment.getProvider().ordinal());
+        buffer.putShort((short) 0);
+    }
+
+    private static Appointment getAppointment(ByteBuffer data, int row, Profile[] profiles) {
+        return new Appointment(Date.ofEpochDay(data.getInt(row)), TIMESLOTS[data.get(row + 8)],
+                profiles[data.getInt(row + 4)], PROVIDERS[data.get(row + 9)]);
+    }
+
+    /**
+     * Writes the buffer out if it has less than the given number of bytes free.
+     */
+    private static void reserve(FileChannel channel, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
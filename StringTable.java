@@ -0,0 +1,92 @@
+/**
+ * Interns strings into dense integer ids starting at 0.
+ * Equal strings always get the same id, and the string for an id can be read back,
+ * so a table of names can be stored once and referred to by index.
+ */
+public class StringTable {
+    private int[] table; // open-addressing slots holding id + 1, 0 when empty
+    private String[] strings; // indexed by id
+    private int size;
+
+    /**
+     * Constructor for the StringTable class.
+     * Initializes an empty table.
+     */
+    public StringTable() {
+        table = new int[16];
+        strings = new String[8];
+        size = 0;
+    }
+
+    /**
+     * Gets the id of a string, assigning the next id if the string is new.
+     * @param string The string to intern.
+     * @return the id of the string.
+     */
+    public int intern(String string) {
+        int slot = slotOf(string);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (size == strings.length) {
+            String[] newStrings = new String[strings.length * 2];
+            System.arraycopy(strings, 0, newStrings, 0, size);
+            strings = newStrings;
+        }
+        strings[size] = string;
+        table[slot] = ++size;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Gets the id of a string without assigning one.
+     * @param string The string to look up.
+     * @return the id, or -1 if the string has not been interned.
+     */
+    public int find(String string) {
+        return table[slotOf(string)] - 1;
+    }
+
+    /**
+     * Gets the string stored under an id.
+     * @param id The id of the string.
+     * @return the string.
+     */
+    public String get(int id) {
+        return strings[id];
+    }
+
+    /**
+     * Gets the number of distinct strings in the table.
+     * @return the number of strings.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Finds the slot holding a string, or the empty slot where it would go.
+     */
+    private int slotOf(String string) {
+        int mask = table.length - 1;
+        int hash = string.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (table[slot] != 0 && !strings[table[slot] - 1].equals(string)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts every id.
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        for (int id = 0; id < size; id++) {
+            table[slotOf(strings[id])] = id + 1;
+        }
+    }
+}
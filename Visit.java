@@ -1,37 +1,69 @@
+/**
+ * A chunk of a patient's visit history.
+ * Each chunk holds several completed appointments in an array and links to the next chunk,
+ * so walking the history touches a few arrays instead of one node per visit.
+ */
 public class Visit {
-    private Appointment appointment;
+    private Appointment[] appointments;
+    private int size;
     private Visit next;
 
     /**
      * Constructor for the Visit class.
-     * @param appointment The completed appointment.
+     * @param capacity The number of appointments the chunk can hold.
      */
-    public Visit(Appointment appointment) {
-        this.appointment = appointment;
+    public Visit(int capacity) {
+        this.appointments = new Appointment[capacity];
+        this.size = 0;
         this.next = null;
     }
 
     /**
-     * Getter for the appointment.
-     * @return The appointment associated with this visit.
+     * Adds a completed appointment to the end of the chunk.
+     * @param appointment The completed appointment.
+     */
+    public void add(Appointment appointment) {
+        appointments[size++] = appointment;
+    }
+
+    /**
+     * Checks if the chunk has no room for another appointment.
+     * @return true if the chunk is full, false otherwise.
+     */
+    public boolean isFull() {
+        return size == appointments.length;
+    }
+
+    /**
+     * Gets the number of appointments in the chunk.
+     * @return the number of appointments.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for an appointment in the chunk.
+     * @param index The position of the appointment, from 0 to getSize() - 1.
+     * @return The appointment at that position.
      */
-    public Appointment getAppointment() {
-        return appointment;
+    public Appointment getAppointment(int index) {
+        return appointments[index];
     }
 
     /**
-     * Getter for the next visit in the linked list.
-     * @return The next visit.
+     * Getter for the next chunk in the linked list.
+     * @return The next chunk.
      */
     public Visit getNext() {
         return next;
     }
 
     /**
-     * Setter for the next visit in the linked list.
-     * @param next The next visit to set.
+     * Setter for the next chunk in the linked list.
+     * @param next The next chunk to set.
      */
     public void setNext(Visit next) {
         this.next = next;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,297 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Random;
+
+/**
+ * Seeded generator of scheduler command streams for load tests.
+ * The same seed and day always give the same stream. Most lines are S, C and R commands
+ * for a pool of patients, spread over the eight providers, the six timeslots and the
+ * bookable weekdays of the six-month window; C and R mostly name appointments booked
+ * earlier in the stream. About one line in five is invalid in one of the ways the
+ * scheduler checks for, and every PRINT_INTERVAL lines one of PA, PP and PL is printed,
+ * with every fourth print a PS that bills and clears the calendar.
+ * Usage: WorkloadGenerator [seed] [commands] [today as mm/dd/yyyy]
+ * The commands are written to standard output.
+ */
+public class WorkloadGenerator {
+    public static final int PRINT_INTERVAL = 10_000;
+
+    private static final int PATIENTS = 10_000;
+    private static final String[] PROVIDERS = {"PATEL", "LIM", "ZIMNES", "HARPER", "KAUR", "TAYLOR", "RAMESH", "CERAVOLO"};
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Mary", "James", "Linda", "Robert", "Patricia",
+            "Michael", "Jennifer", "David", "Elizabeth", "William", "Susan", "Richard", "Jessica", "Joseph",
+            "Sarah", "Thomas", "Karen", "Charles", "Nancy", "Daniel", "Lisa", "Matthew", "Betty", "Anthony",
+            "Sandra", "Mark", "Ashley", "Steven", "Emily", "Paul"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris",
+            "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young"};
+    private static final String[] PRINTS = {"PA", "PP", "PL"};
+
+    private final Random random;
+    private final int today;
+    private final String[] patients; // "first,last,dob" for each patient
+    private final String[] bookableDays; // every weekday in the window, as mm/dd/yyyy
+    private final String[] weekendDays; // every weekend day in the window, as mm/dd/yyyy
+    private long[] booked; // appointments the stream has booked, see pack
+    private int bookedCount;
+    private long lines;
+
+    /**
+     * Constructor for the WorkloadGenerator class.
+     * @param seed The seed for the random choices.
+     * @param today The epoch day the stream is written for; the scheduler that runs it should have the same today.
+     */
+    public WorkloadGenerator(long seed, int today) {
+        this.random = new Random(seed);
+        this.today = today;
+        patients = new String[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            Date dob = Date.ofEpochDay(today - 365 - random.nextInt(90 * 365));
+            patients[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + i + ","
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "," + format(dob);
+        }
+        int lastDay = Date.sixMonthsAfter(today);
+        int weekdays = 0;
+        for (int day = today + 1; day <= lastDay; day++) {
+            weekdays += Date.ofEpochDay(day).isWeekend() ? 0 : 1;
+        }
+        bookableDays = new String[weekdays];
+        weekendDays = new String[lastDay - today - weekdays];
+        int weekday = 0;
+        int weekend = 0;
+        for (int day = today + 1; day <= lastDay; day++) {
+            Date date = Date.ofEpochDay(day);
+            if (date.isWeekend()) {
+                weekendDays[weekend++] = format(date);
+            } else {
+                bookableDays[weekday++] = format(date);
+            }
+        }
+        booked = new long[1024];
+        bookedCount = 0;
+        lines = 0;
+    }
+
+    /**
+     * Writes the next lines of the stream.
+     * @param out The stream to write to.
+     * @param commands The number of lines to write.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(OutputStream out, long commands) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        for (long i = 0; i < commands; i++) {
+            line.setLength(0);
+            next(line);
+            line.append('\n');
+            out.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the next lines of the stream to a file, replacing its contents.
+     * The lines are streamed out, so any number of them can be written in constant memory.
+     * @param path The file to write.
+     * @param commands The number of lines to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path, long commands) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(out, commands);
+        }
+    }
+
+    /**
+     * Appends the next line, without its newline.
+     */
+    private void next(StringBuilder line) {
+        lines++;
+        if (lines % PRINT_INTERVAL == 0) {
+            long print = lines / PRINT_INTERVAL;
+            if (print % 4 == 0) {
+                line.append("PS");
+                bookedCount = 0;
+            } else {
+                line.append(PRINTS[(int) (print % PRINTS.length)]);
+            }
+            return;
+        }
+        int choice = random.nextInt(100);
+        if (choice < 45 || (choice < 72 && bookedCount == 0)) {
+            schedule(line);
+        } else if (choice < 60) {
+            cancel(line);
+        } else if (choice < 72) {
+            reschedule(line);
+        } else if (choice < 80) {
+            missing(line);
+        } else {
+            invalid(line);
+        }
+    }
+
+    /**
+     * Books a random patient into a random bookable slot, which may already be taken.
+     */
+    private void schedule(StringBuilder line) {
+        int day = random.nextInt(bookableDays.length);
+        int slot = random.nextInt(6);
+        int provider = random.nextInt(PROVIDERS.length);
+        int patient = random.nextInt(PATIENTS);
+        appendAppointment(line.append("S,"), bookableDays[day], slot + 1, patients[patient]);
+        line.append(',').append(PROVIDERS[provider]);
+        if (bookedCount == booked.length) {
+            long[] newBooked = new long[booked.length * 2];
+            System.arraycopy(booked, 0, newBooked, 0, bookedCount);
+            booked = newBooked;
+        }
+        booked[bookedCount++] = pack(day, slot, provider, patient);
+    }
+
+    /**
+     * Cancels an appointment booked earlier in the stream.
+     */
+    private void cancel(StringBuilder line) {
+        int i = random.nextInt(bookedCount);
+        long appointment = booked[i];
+        booked[i] = booked[--bookedCount];
+        appendAppointment(line.append("C,"), bookableDays[dayOf(appointment)], slotOf(appointment) + 1,
+                patients[patientOf(appointment)]);
+        line.append(',').append(PROVIDERS[providerOf(appointment)]);
+    }
+
+    /**
+     * Moves an appointment booked earlier in the stream to another timeslot on the same day.
+     */
+    private void reschedule(StringBuilder line) {
+        int i = random.nextInt(bookedCount);
+        long appointment = booked[i];
+        int newSlot = (slotOf(appointment) + 1 + random.nextInt(5)) % 6;
+        booked[i] = pack(dayOf(appointment), newSlot, providerOf(appointment), patientOf(appointment));
+        appendAppointment(line.append("R,"), bookableDays[dayOf(appointment)], slotOf(appointment) + 1,
+                patients[patientOf(appointment)]);
+        line.append(',').append(newSlot + 1);
+    }
+
+    /**
+     * Cancels or moves a well-formed appointment that was never booked.
+     */
+    private void missing(StringBuilder line) {
+        String day = bookableDays[random.nextInt(bookableDays.length)];
+        String patient = patients[random.nextInt(PATIENTS)];
+        if (random.nextBoolean()) {
+            appendAppointment(line.append("C,"), day, 1 + random.nextInt(6), patient);
+            line.append(',').append(PROVIDERS[random.nextInt(PROVIDERS.length)]);
+        } else {
+            appendAppointment(line.append("R,"), day, 1 + random.nextInt(6), patient);
+            line.append(',').append(1 + random.nextInt(6));
+        }
+    }
+
+    /**
+     * Appends a line the scheduler rejects: a bad date, timeslot, provider, date of birth,
+     * field count or command code.
+     */
+    private void invalid(StringBuilder line) {
+        String day = bookableDays[random.nextInt(bookableDays.length)];
+        String patient = patients[random.nextInt(PATIENTS)];
+        String provider = PROVIDERS[random.nextInt(PROVIDERS.length)];
+        int slot = 1 + random.nextInt(6);
+        switch (random.nextInt(9)) {
+            case 0: // not a calendar date
+                day = random.nextBoolean() ? "2/30/" + (Date.ofEpochDay(today).getYear() + 1)
+                        : "13/1/" + Date.ofEpochDay(today).getYear();
+                break;
+            case 1:
+                day = weekendDays[random.nextInt(weekendDays.length)];
+                break;
+            case 2: // today or before
+                day = format(Date.ofEpochDay(today - random.nextInt(365)));
+                break;
+            case 3: // beyond six months
+                day = format(Date.ofEpochDay(Date.sixMonthsAfter(today) + 1 + random.nextInt(365)));
+                break;
+            case 4:
+                slot = random.nextBoolean() ? 0 : 7;
+                break;
+            case 5:
+                provider = "SMITH";
+                break;
+            case 6: // born today or later
+                patient = patient.substring(0, patient.lastIndexOf(',') + 1)
+                        + format(Date.ofEpochDay(today + random.nextInt(365)));
+                break;
+            case 7:
+                line.append("S,").append(day).append(',').append(slot);
+                return;
+            default:
+                line.append(random.nextBoolean() ? "X" : "PZ");
+                return;
+        }
+        appendAppointment(line.append("S,"), day, slot, patient);
+        line.append(',').append(provider);
+    }
+
+    private static void appendAppointment(StringBuilder line, String day, int slot, String patient) {
+        line.append(day).append(',').append(slot).append(',').append(patient);
+    }
+
+    private static String format(Date date) {
+        return date.getMonth() + "/" + date.getDay() + "/" + date.getYear();
+    }
+
+    /**
+     * Packs a booked appointment as [day index][patient][provider][timeslot], 32, 24, 4 and 4 bits.
+     */
+    private static long pack(int day, int slot, int provider, int patient) {
+        return (long) day << 32 | (long) patient << 8 | provider << 4 | slot;
+    }
+
+    private static int dayOf(long appointment) {
+        return (int) (appointment >>> 32);
+    }
+
+    private static int patientOf(long appointment) {
+        return (int) (appointment >>> 8) & 0xFFFFFF;
+    }
+
+    private static int providerOf(long appointment) {
+        return (int) (appointment >>> 4) & 0xF;
+    }
+
+    private static int slotOf(long appointment) {
+        return (int) appointment & 0xF;
+    }
+
+    /**
+     * Parses a day given as mm/dd/yyyy.
+     * @param text The day.
+     * @return the epoch day.
+     * @throws IllegalArgumentException if the text is not a valid date.
+     */
+    public static int parseDay(String text) {
+        String[] parts = text.split("/");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(text + " is not a date");
+        }
+        Date date = new Date(Integer.parseInt(parts[2]), Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        if (!date.isValid()) {
+            throw new IllegalArgumentException(text + " is not a valid calendar date");
+        }
+        return date.toEpochDay();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        long commands = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int today = args.length > 2 ? parseDay(args[2]) : new BookingCalendar(Clock.systemDefaultZone()).getToday();
+        new WorkloadGenerator(seed, today).write(new BufferedOutputStream(System.out, 1 << 16), commands);
+    }
+}
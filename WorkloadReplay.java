@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Replays a command stream through a scheduler and reports how it performed:
+ * commands per second, latency percentiles for each command type and the peak heap.
+ * The stream is either generated by WorkloadGenerator from a seed or read from a file.
+ * A generated stream is written to a temporary file first and read back like any other,
+ * so neither generating it nor holding it counts towards the peak heap.
+ * The scheduler's clock is fixed to the day the stream was written for, so the same
+ * stream gives the same responses on any day. Responses are discarded.
+ * Usage: WorkloadReplay [-seed seed] [-commands count] [-today mm/dd/yyyy] [-file commandFile]
+ */
+public class WorkloadReplay {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    public static void main(String[] args) throws IOException {
+        long seed = 1;
+        long commands = 1_000_000;
+        int today = new BookingCalendar(Clock.systemDefaultZone()).getToday();
+        Path file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-commands") && i + 1 < args.length) {
+                commands = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-today") && i + 1 < args.length) {
+                today = WorkloadGenerator.parseDay(args[++i]);
+            } else if (args[i].equals("-file") && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+            } else {
+                System.out.println("Usage: WorkloadReplay [-seed seed] [-commands count] [-today mm/dd/yyyy] [-file commandFile]");
+                return;
+            }
+        }
+
+        Path generated = null;
+        if (file == null) {
+            generated = Files.createTempFile("workload", ".txt");
+            generated.toFile().deleteOnExit();
+            new WorkloadGenerator(seed, today).write(generated, commands);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        Clock clock = Clock.fixed(LocalDate.ofEpochDay(today).atTime(12, 0).atZone(zone).toInstant(), zone);
+        Scheduler scheduler = new Scheduler(clock).newSession(new PrintStream(OutputStream.nullOutputStream()));
+        CommandType[] types = CommandType.values();
+        LatencyHistogram[] latencies = new LatencyHistogram[types.length];
+        for (int i = 0; i < types.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        scheduler.setCommandListener((type, nanos) -> latencies[type.ordinal()].record(nanos));
+
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        int processed;
+        try (ReadableByteChannel in = FileChannel.open(file == null ? generated : file, StandardOpenOption.READ)) {
+            processed = scheduler.run(in);
+        } finally {
+            if (generated != null) {
+                Files.deleteIfExists(generated);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        Date day = Date.ofEpochDay(today);
+        System.out.printf("Replayed %,d commands from %s for %s in %.3f seconds (%,.0f commands/sec).%n",
+                processed, file == null ? "seed " + seed : file.toString(), day, seconds,
+                seconds > 0 ? processed / seconds : 0.0);
+        System.out.printf("Peak heap: %,.1f MB%n", peakHeap / (1024.0 * 1024.0));
+        System.out.printf("%-22s %10s %10s %10s %10s %10s %10s%n", "Command", "Count", "p50 us", "p90 us",
+                "p99 us", "p99.9 us", "max us");
+        for (int i = 0; i < types.length; i++) {
+            if (latencies[i].getCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-22s %,10d", types[i], latencies[i].getCount());
+            for (double percentile : PERCENTILES) {
+                System.out.printf(" %10.1f", latencies[i].getPercentile(percentile) / 1000.0);
+            }
+            System.out.printf(" %10.1f%n", latencies[i].getMax() / 1000.0);
+        }
+    }
+}
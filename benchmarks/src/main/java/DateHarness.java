@@ -0,0 +1,39 @@
+import bench.DateOps;
+
+import java.util.Random;
+
+/**
+ * Builds dates for the Date benchmarks: about half are real weekdays within the next
+ * six months, and the rest are impossible dates, weekends or too far out.
+ */
+public class DateHarness implements DateOps {
+    private Date[] dates;
+    private int next;
+
+    @Override
+    public void setUp(int size) {
+        Random random = new Random(size);
+        int today = Date.todayEpochDay();
+        dates = new Date[Integer.highestOneBit(Math.max(2, size))];
+        for (int i = 0; i < dates.length; i++) {
+            if (random.nextBoolean()) {
+                dates[i] = Date.ofEpochDay(today + 1 + random.nextInt(180));
+            } else {
+                dates[i] = new Date(1990 + random.nextInt(60), 1 + random.nextInt(13), 1 + random.nextInt(31));
+            }
+        }
+        next = 0;
+    }
+
+    @Override
+    public boolean validateNext() {
+        Date date = dates[next++ & (dates.length - 1)];
+        return date.isValid() && !date.isWeekend() && date.isWithinSixMonths();
+    }
+
+    @Override
+    public int compareNext() {
+        int i = next++;
+        return dates[i & (dates.length - 1)].compareTo(dates[(i + 1) & (dates.length - 1)]);
+    }
+}
@@ -0,0 +1,110 @@
+import bench.ListOps;
+
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Builds lists of synthetic appointments for the List benchmarks.
+ * Appointment i is on day i / 48 after the first day, with provider (i / 6) % 8 and
+ * timeslot i % 6, so no two appointments share a slot, and belongs to one of
+ * size / 8 patients, so every patient has several appointments to bill.
+ */
+public class ListHarness implements ListOps {
+    private static final int FIRST_DAY = new Date(2000, 1, 3).toEpochDay();
+    private static final int PROBES = 1 << 12;
+    private static final Timeslot[] TIMESLOTS = Timeslot.values();
+    private static final Provider[] PROVIDERS = Provider.values();
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    private List list;
+    private SchedulingCore core; // the same appointments in stripes, built by the first core print
+    private Appointment[] probes; // even ones are in the list, odd ones are not
+    private Appointment[] extra; // never in the list
+    private int next;
+
+    @Override
+    public void setUp(int size) {
+        list = new List(new PatientRegistry());
+        list.setOutput(DISCARD);
+        core = null;
+        Profile[] patients = fill(list, size);
+        probes = new Appointment[PROBES];
+        extra = new Appointment[PROBES];
+        Random random = new Random(size);
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = i % 2 == 0
+                    ? newAppointment(random.nextInt(size), patients)
+                    : newAppointment(size + random.nextInt(size), patients);
+            extra[i] = newAppointment(size + i, patients);
+        }
+        next = 0;
+    }
+
+    @Override
+    public boolean containsNext() {
+        return list.contains(probes[next++ & (PROBES - 1)]);
+    }
+
+    @Override
+    public int addRemoveNext() {
+        Appointment appointment = extra[next++ & (PROBES - 1)];
+        list.add(appointment);
+        int size = list.getSize();
+        list.remove(appointment);
+        return size;
+    }
+
+    @Override
+    public void printByPatient() {
+        list.printByPatient();
+    }
+
+    @Override
+    public void printByLocation() {
+        list.printByLocation();
+    }
+
+    @Override
+    public void printByAppointment() {
+        list.printByAppointment();
+    }
+
+    @Override
+    public void printCoreByAppointment() {
+        if (core == null) {
+            core = new SchedulingCore(list, null);
+        }
+        List.printAppointments(new ReportWriter(DISCARD), ListOrder.BY_APPOINTMENT,
+                core.getAppointments(ListOrder.BY_APPOINTMENT));
+    }
+
+    @Override
+    public void printBillingStatements() {
+        list.printBillingStatements();
+    }
+
+    /**
+     * Adds appointments 0 to size - 1 to a list.
+     * @return the patients the appointments belong to.
+     */
+    static Profile[] fill(List list, int size) {
+        Profile[] patients = newPatients(Math.max(1, size / 8));
+        for (int i = 0; i < size; i++) {
+            list.add(newAppointment(i, patients));
+        }
+        return patients;
+    }
+
+    static Profile[] newPatients(int count) {
+        Profile[] patients = new Profile[count];
+        for (int p = 0; p < count; p++) {
+            patients[p] = new Profile("First" + p, "Last" + (p % 1000), Date.ofEpochDay(FIRST_DAY - 20000 + p % 15000));
+        }
+        return patients;
+    }
+
+    private static Appointment newAppointment(int i, Profile[] patients) {
+        return new Appointment(Date.ofEpochDay(FIRST_DAY + i / 48), TIMESLOTS[i % 6],
+                patients[i % patients.length], PROVIDERS[(i / 6) % 8]);
+    }
+}
@@ -0,0 +1,38 @@
+import bench.RecordOps;
+
+import java.util.Random;
+
+/**
+ * Builds medical records for the MedicalRecord benchmarks.
+ * The probes are fresh Profile objects, as the scheduler creates for each command,
+ * so a lookup pays for hashing and comparing names rather than an identity check.
+ */
+public class RecordHarness implements RecordOps {
+    private static final int PROBES = 1 << 12;
+
+    private MedicalRecord record;
+    private Profile[] probes; // even ones are in the record, odd ones are not
+    private int next;
+
+    @Override
+    public void setUp(int size) {
+        Profile[] patients = ListHarness.newPatients(size);
+        record = new MedicalRecord();
+        for (Profile patient : patients) {
+            record.add(new Patient(patient));
+        }
+        Random random = new Random(size);
+        probes = new Profile[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            Profile patient = patients[random.nextInt(size)];
+            probes[i] = new Profile(patient.getFirstName(), i % 2 == 0 ? patient.getLastName() : "Unknown",
+                    patient.getDob());
+        }
+        next = 0;
+    }
+
+    @Override
+    public Object findNext() {
+        return record.findPatient(probes[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,72 @@
+import bench.SchedulerOps;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * Builds a scheduler for the end-to-end benchmark.
+ * The starting appointments are written to a snapshot and loaded the way a restart would,
+ * because the booking window only holds a few thousand of them. They lie in the past,
+ * so the batch never collides with them but every command still searches the full calendar.
+ * Each group of three commands books slot 1 of a weekday for one provider,
+ * moves it to slot 2 and cancels it, so the batch leaves the calendar as it found it.
+ */
+public class SchedulerHarness implements SchedulerOps {
+    private static final String[] PROVIDERS = {"PATEL", "LIM", "ZIMNES", "HARPER", "KAUR", "TAYLOR", "RAMESH", "CERAVOLO"};
+
+    private Path snapshot;
+    private Scheduler scheduler;
+    private byte[] batch;
+
+    @Override
+    public void setUp(int size, int commands) {
+        try {
+            snapshot = Files.createTempFile("scheduler-bench", ".snapshot");
+            List list = new List(new PatientRegistry());
+            ListHarness.fill(list, size);
+            Snapshot.write(snapshot, list, new MedicalRecord(), 0);
+            scheduler = new Scheduler(Clock.systemDefaultZone(), null, snapshot)
+                    .newSession(new PrintStream(OutputStream.nullOutputStream()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StringBuilder text = new StringBuilder();
+        int day = Date.todayEpochDay();
+        for (int group = 0; group < commands / 3; group++) {
+            if (group % PROVIDERS.length == 0) {
+                do {
+                    day++;
+                } while (Date.ofEpochDay(day).isWeekend());
+            }
+            Date date = Date.ofEpochDay(day);
+            String when = date.getMonth() + "/" + date.getDay() + "/" + date.getYear();
+            String patient = ",Bench" + group + ",Patient,1/1/1990,";
+            text.append("S,").append(when).append(",1").append(patient).append(PROVIDERS[group % PROVIDERS.length]).append('\n');
+            text.append("R,").append(when).append(",1").append(patient).append("2\n");
+            text.append("C,").append(when).append(",2").append(patient).append(PROVIDERS[group % PROVIDERS.length]).append('\n');
+        }
+        batch = text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int runBatch() {
+        return scheduler.run(Channels.newChannel(new ByteArrayInputStream(batch)));
+    }
+
+    @Override
+    public void tearDown() {
+        try {
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
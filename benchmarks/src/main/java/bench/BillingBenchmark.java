@@ -0,0 +1,48 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * printBillingStatements on a List holding size appointments.
+ * Billing clears the list, so it is rebuilt before every call and each call is timed on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BillingBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private ListOps list;
+
+    @Setup(Level.Trial)
+    public void load() {
+        list = Harnesses.load("ListHarness", ListOps.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        list.setUp(size);
+    }
+
+    @Benchmark
+    public void printBillingStatements() {
+        list.printBillingStatements();
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date validation and comparison over a pool of mixed dates.
+ * These do not depend on the calendar size, so the pool is fixed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark {
+    private static final int POOL = 1 << 12;
+
+    private DateOps dates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dates = Harnesses.load("DateHarness", DateOps.class);
+        dates.setUp(POOL);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return dates.validateNext();
+    }
+
+    @Benchmark
+    public int compare() {
+        return dates.compareNext();
+    }
+}
@@ -0,0 +1,25 @@
+package bench;
+
+/**
+ * The Date operations the benchmarks measure, implemented by DateHarness in the default package.
+ */
+public interface DateOps {
+    /**
+     * Builds a pool of dates to validate, a mix of valid, impossible and out of range ones.
+     * @param size The number of dates in the pool.
+     */
+    void setUp(int size);
+
+    /**
+     * Runs the next date in the pool through the checks S makes on an appointment date:
+     * a real calendar date, not on a weekend and within six months.
+     * @return true if the date passes every check.
+     */
+    boolean validateNext();
+
+    /**
+     * Compares the next two dates in the pool.
+     * @return the result of compareTo.
+     */
+    int compareNext();
+}
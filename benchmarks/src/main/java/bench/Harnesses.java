@@ -0,0 +1,26 @@
+package bench;
+
+/**
+ * Loads the default-package harness classes.
+ * Classes in a named package cannot refer to the default package, and JMH cannot generate
+ * code for benchmarks in it, so each harness implements one of the interfaces in this
+ * package and the benchmarks load it by name.
+ */
+final class Harnesses {
+    private Harnesses() {
+    }
+
+    /**
+     * Creates a harness.
+     * @param name The name of the default-package harness class.
+     * @param type The interface it implements.
+     * @return a new harness.
+     */
+    static <T> T load(String name, Class<T> type) {
+        try {
+            return type.cast(Class.forName(name).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot load " + name, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package bench;
+
+/**
+ * The List operations the benchmarks measure, implemented by ListHarness in the default package.
+ */
+public interface ListOps {
+    /**
+     * Builds a list of the given number of appointments and the probes used against it.
+     * @param size The number of appointments in the list.
+     */
+    void setUp(int size);
+
+    /**
+     * Looks up the next probe, half of which are in the list.
+     * @return true if the probe was found.
+     */
+    boolean containsNext();
+
+    /**
+     * Adds the next appointment that is not in the list, then removes it again,
+     * so the list keeps its size.
+     * @return the size of the list while the appointment was in it.
+     */
+    int addRemoveNext();
+
+    void printByPatient();
+
+    void printByLocation();
+
+    void printByAppointment();
+
+    /**
+     * Prints the date/time/provider listing the way the scheduler does, by merging the
+     * sorted views of a scheduling core holding the same appointments.
+     */
+    void printCoreByAppointment();
+
+    /**
+     * Prints the billing statements, which also clears the list; call setUp again before the next one.
+     */
+    void printBillingStatements();
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three printBy* orderings of a List holding size appointments, and the date/time/provider
+ * listing merged from a scheduling core holding the same appointments, written to a null stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private ListOps list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = Harnesses.load("ListHarness", ListOps.class);
+        list.setUp(size);
+    }
+
+    @Benchmark
+    public void printByPatient() {
+        list.printByPatient();
+    }
+
+    @Benchmark
+    public void printByLocation() {
+        list.printByLocation();
+    }
+
+    @Benchmark
+    public void printByAppointment() {
+        list.printByAppointment();
+    }
+
+    @Benchmark
+    public void printCoreByAppointment() {
+        list.printCoreByAppointment();
+    }
+}
@@ -0,0 +1,18 @@
+package bench;
+
+/**
+ * The MedicalRecord operations the benchmarks measure, implemented by RecordHarness in the default package.
+ */
+public interface RecordOps {
+    /**
+     * Builds a medical record of the given number of patients and the probes used against it.
+     * @param size The number of patients in the record.
+     */
+    void setUp(int size);
+
+    /**
+     * Looks up the next probe, half of which are in the record.
+     * @return the patient found, or null.
+     */
+    Object findNext();
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end command processing: parsing, validation, booking and responses for a batch
+ * of S, R and C commands against a scheduler that starts with size appointments.
+ * Scores are per command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+    private static final int COMMANDS = 3000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private SchedulerOps scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = Harnesses.load("SchedulerHarness", SchedulerOps.class);
+        scheduler.setUp(size, COMMANDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.tearDown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public int commands() {
+        return scheduler.runBatch();
+    }
+}
@@ -0,0 +1,26 @@
+package bench;
+
+/**
+ * End-to-end command processing, implemented by SchedulerHarness in the default package.
+ */
+public interface SchedulerOps {
+    /**
+     * Builds a scheduler that already holds the given number of appointments,
+     * and a batch of S, R and C commands to run against it.
+     * @param size The number of appointments the scheduler starts with.
+     * @param commands The number of commands in the batch.
+     */
+    void setUp(int size, int commands);
+
+    /**
+     * Runs the batch through the scheduler's command loop.
+     * The batch cancels everything it books, so it can be run again.
+     * @return the number of commands processed.
+     */
+    int runBatch();
+
+    /**
+     * Releases anything setUp created, such as temporary files.
+     */
+    void tearDown();
+}